@@ -0,0 +1,61 @@
+package com.challenge.burcakkocak.controller;
+
+import com.challenge.burcakkocak.entity.dto.DevicePageDTO;
+import com.challenge.burcakkocak.entity.dto.DeviceResponseDTO;
+import com.challenge.burcakkocak.mapper.Mapper;
+import com.challenge.burcakkocak.repo.DeviceView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a page of 1000 projected rows: mapped to DeviceResponseDTOs with formatted timestamps first,
+ * as the list endpoints used to do, or written directly by DeviceViewSerializer.
+ * Run with -prof gc and compare gc.alloc.rate.norm for the bytes allocated per page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DevicePageBenchmark {
+
+    private final Mapper mapper = new Mapper();
+    private ObjectWriter dtoWriter;
+    private ObjectWriter pageWriter;
+    private List<DeviceView> rows;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        dtoWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, DeviceResponseDTO.class));
+        pageWriter = objectMapper.writerFor(DevicePageDTO.class);
+        rows = new ArrayList<>(1000);
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new DeviceView((long) i + 1, "Device " + i, i % 2 == 0 ? "Samsung" : "Apple",
+                    LocalDateTime.of(2024, 9, 19, 10, 15, 30).plusSeconds(i), 0L));
+        }
+    }
+
+    @Benchmark
+    public void viaResponseDTO() throws IOException {
+        List<DeviceResponseDTO> dtos = new ArrayList<>(rows.size());
+        for (DeviceView row : rows) {
+            dtos.add(mapper.toResponseDTO(row));
+        }
+        dtoWriter.writeValue(OutputStream.nullOutputStream(), dtos);
+    }
+
+    @Benchmark
+    public void direct() throws IOException {
+        pageWriter.writeValue(OutputStream.nullOutputStream(), new DevicePageDTO(rows, null));
+    }
+}
@@ -0,0 +1,52 @@
+package com.challenge.burcakkocak.controller;
+
+import com.challenge.burcakkocak.entity.dto.DeviceResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of device lists as returned by the list endpoints, written to a discarding stream
+ * so the buffer handling of the response is measured but not the copy into a byte array.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    public int size;
+
+    private ObjectWriter writer;
+    private List<DeviceResponseDTO> devices;
+
+    @Setup
+    public void setUp() {
+        writer = new ObjectMapper().writerFor(new ObjectMapper().getTypeFactory()
+                .constructCollectionType(List.class, DeviceResponseDTO.class));
+        devices = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            DeviceResponseDTO dto = new DeviceResponseDTO();
+            dto.setId((long) i + 1);
+            dto.setName("Device " + i);
+            dto.setBrand(i % 2 == 0 ? "Samsung" : "Apple");
+            dto.setCreationTime("2024-09-19T10:15:30");
+            dto.setVersion(0L);
+            devices.add(dto);
+        }
+    }
+
+    @Benchmark
+    public void serializeList() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), devices);
+    }
+}
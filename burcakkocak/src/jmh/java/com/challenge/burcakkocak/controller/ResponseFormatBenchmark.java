@@ -0,0 +1,78 @@
+package com.challenge.burcakkocak.controller;
+
+import com.challenge.burcakkocak.entity.dto.DevicePageDTO;
+import com.challenge.burcakkocak.repo.DeviceView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization time of a device page in each negotiable encoding, plain and gzipped as the server compresses it.
+ * The payload sizes are printed once per trial, e.g. "json 10000 devices: 987820 bytes, 56766 gzipped".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private ObjectWriter writer;
+    private DevicePageDTO page;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = switch (format) {
+            case "cbor" -> new CBORMapper();
+            case "smile" -> new SmileMapper();
+            default -> new ObjectMapper();
+        };
+        writer = mapper.writerFor(DevicePageDTO.class);
+        List<DeviceView> devices = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            devices.add(new DeviceView((long) i + 1, "Device " + i, i % 2 == 0 ? "Samsung" : "Apple",
+                    LocalDateTime.of(2024, 9, 19, 10, 15, 30), 0L));
+        }
+        page = new DevicePageDTO(devices, "MTAwMDA");
+
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        writer.writeValue(plain, page);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        serializeGzip(gzipped);
+        System.out.printf("%n%s %d devices: %d bytes, %d gzipped%n", format, size, plain.size(), gzipped.size());
+    }
+
+    @Benchmark
+    public void serialize() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), page);
+    }
+
+    @Benchmark
+    public void serializeGzipped() throws IOException {
+        serializeGzip(OutputStream.nullOutputStream());
+    }
+
+    private void serializeGzip(OutputStream target) throws IOException {
+        try (GZIPOutputStream out = new GZIPOutputStream(target, 8192)) {
+            writer.writeValue(out, page);
+        }
+    }
+}
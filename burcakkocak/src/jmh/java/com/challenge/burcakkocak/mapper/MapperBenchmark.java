@@ -0,0 +1,86 @@
+package com.challenge.burcakkocak.mapper;
+
+import com.challenge.burcakkocak.entity.Device;
+import com.challenge.burcakkocak.entity.dto.DeviceRequestDTO;
+import com.challenge.burcakkocak.entity.dto.DeviceResponseDTO;
+import com.challenge.burcakkocak.repo.DeviceView;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of the entity/DTO mapping, with the timestamp parse and format measured on their own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private Mapper mapper;
+    private Device device;
+    private DeviceView view;
+    private DeviceRequestDTO requestWithTime;
+    private DeviceRequestDTO requestWithoutTime;
+
+    @Setup
+    public void setUp() {
+        mapper = new Mapper();
+        device = new Device(42L, "Galaxy S24 Ultra", "Samsung", LocalDateTime.of(2024, 9, 19, 10, 15, 30));
+        device.setVersion(3L);
+        view = new DeviceView(42L, "Galaxy S24 Ultra", "Samsung", LocalDateTime.of(2024, 9, 19, 10, 15, 30), 3L);
+        requestWithTime = new DeviceRequestDTO();
+        requestWithTime.setName("Galaxy S24 Ultra");
+        requestWithTime.setBrand("Samsung");
+        requestWithTime.setCreationTime("2024-09-19T10:15:30");
+        requestWithoutTime = new DeviceRequestDTO();
+        requestWithoutTime.setName("Galaxy S24 Ultra");
+        requestWithoutTime.setBrand("Samsung");
+    }
+
+    @Benchmark
+    public DeviceResponseDTO toResponseDTO() {
+        return mapper.toResponseDTO(device);
+    }
+
+    @Benchmark
+    public DeviceResponseDTO toResponseDTOFromView() {
+        return mapper.toResponseDTO(view);
+    }
+
+    @Benchmark
+    public Device toEntity() {
+        return mapper.toEntity(requestWithTime);
+    }
+
+    @Benchmark
+    public Device toEntityWithoutCreationTime() {
+        return mapper.toEntity(requestWithoutTime);
+    }
+
+    @Benchmark
+    public String formatCreationTime() {
+        return device.getCreationTime().format(FORMATTER);
+    }
+
+    @Benchmark
+    public LocalDateTime parseCreationTime() {
+        return LocalDateTime.parse(requestWithTime.getCreationTime(), FORMATTER);
+    }
+
+    @Benchmark
+    public String formatCreationTimeWithCodec() {
+        return TimestampCodec.format(device.getCreationTime());
+    }
+
+    @Benchmark
+    public LocalDateTime parseCreationTimeWithCodec() {
+        return TimestampCodec.parse(requestWithTime.getCreationTime());
+    }
+}
@@ -0,0 +1,52 @@
+package com.challenge.burcakkocak.service;
+
+import com.challenge.burcakkocak.config.DeviceProperties;
+import com.challenge.burcakkocak.entity.Device;
+import com.challenge.burcakkocak.entity.dto.DeviceRequestDTO;
+import com.challenge.burcakkocak.mapper.Mapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of applying a request DTO to an entity, for full (PUT) and partial (PATCH) updates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeviceServiceBenchmark {
+
+    private DeviceService deviceService;
+    private Device device;
+    private DeviceRequestDTO fullUpdate;
+    private DeviceRequestDTO partialUpdate;
+
+    @Setup
+    public void setUp() {
+        // updateDeviceFields touches neither the repository nor the event publisher
+        deviceService = new DeviceService(null, new Mapper(), new DeviceProperties(), null, null);
+        device = new Device(42L, "Galaxy S24 Ultra", "Samsung", LocalDateTime.of(2024, 9, 19, 10, 15, 30));
+        fullUpdate = new DeviceRequestDTO();
+        fullUpdate.setName("Galaxy S25 Ultra");
+        fullUpdate.setBrand("Samsung");
+        fullUpdate.setCreationTime("2025-01-22T09:00:00");
+        partialUpdate = new DeviceRequestDTO();
+        partialUpdate.setName("Galaxy S25");
+    }
+
+    @Benchmark
+    public Device updateDeviceFieldsFull() {
+        deviceService.updateDeviceFields(device, fullUpdate, true);
+        return device;
+    }
+
+    @Benchmark
+    public Device updateDeviceFieldsPartial() {
+        deviceService.updateDeviceFields(device, partialUpdate, false);
+        return device;
+    }
+}
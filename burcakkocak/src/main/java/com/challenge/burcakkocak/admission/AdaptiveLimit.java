@@ -0,0 +1,60 @@
+package com.challenge.burcakkocak.admission;
+
+import com.challenge.burcakkocak.config.DeviceProperties;
+
+/**
+ * A concurrency limit that follows observed latency (AIMD). Every request that completes within the latency threshold
+ * while the limit is at least half in use raises the limit by one. A slower or failed request multiplies it by the
+ * backoff ratio, at most once per round trip: only requests admitted after the last decrease can lower it again,
+ * so a burst of slow requests that were all in flight together counts once.
+ */
+class AdaptiveLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseNanos;
+
+    AdaptiveLimit(DeviceProperties.Admission.Limit settings, double backoffRatio, long nowNanos) {
+        this.minLimit = settings.getMinLimit();
+        this.maxLimit = settings.getMaxLimit();
+        this.latencyThresholdNanos = settings.getLatencyThreshold().toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, settings.getInitialLimit()));
+        this.lastDecreaseNanos = nowNanos;
+    }
+
+    // False when the limit is reached; the caller must not wait for a slot
+    synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    // Called once for every successful tryAcquire, with the time the request was admitted and the time it completed
+    synchronized void release(long startNanos, long endNanos, boolean failed) {
+        inFlight--;
+        if (failed || endNanos - startNanos > latencyThresholdNanos) {
+            if (startNanos - lastDecreaseNanos >= 0) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecreaseNanos = endNanos;
+            }
+        } else if ((inFlight + 1) * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,90 @@
+package com.challenge.burcakkocak.admission;
+
+import com.challenge.burcakkocak.config.DeviceProperties;
+import com.challenge.burcakkocak.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Admits requests to handlers marked with {@link AdmissionControlled} against an adaptive concurrency limit per budget.
+ * A request over the limit is rejected with 503 right away instead of waiting for a thread or a database connection,
+ * so the latency of admitted requests stays bounded when the database slows down.
+ * Limits, requests in flight and rejections are published as device.admission.limit, device.admission.inflight
+ * and device.admission.rejected, tagged with the budget.
+ */
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    private static final String ADMITTED = AdmissionControlInterceptor.class.getName() + ".admitted";
+
+    private record Admitted(AdaptiveLimit limit, long startNanos) {
+    }
+
+    private final DeviceProperties.Admission settings;
+    private final Map<AdmissionControlled.Budget, AdaptiveLimit> limits = new EnumMap<>(AdmissionControlled.Budget.class);
+    private final Map<AdmissionControlled.Budget, Counter> rejected = new EnumMap<>(AdmissionControlled.Budget.class);
+
+    public AdmissionControlInterceptor(DeviceProperties properties, MeterRegistry meterRegistry) {
+        this.settings = properties.getAdmission();
+        limits.put(AdmissionControlled.Budget.READ, new AdaptiveLimit(settings.getReads(), settings.getBackoffRatio(), System.nanoTime()));
+        limits.put(AdmissionControlled.Budget.WRITE, new AdaptiveLimit(settings.getWrites(), settings.getBackoffRatio(), System.nanoTime()));
+        limits.put(AdmissionControlled.Budget.BULK, new AdaptiveLimit(settings.getBulk(), settings.getBackoffRatio(), System.nanoTime()));
+        limits.forEach((budget, limit) -> {
+            String tag = budget.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("device.admission.limit", limit, AdaptiveLimit::getLimit)
+                    .description("Concurrency limit of the budget, adapted to latency")
+                    .tag("budget", tag)
+                    .register(meterRegistry);
+            Gauge.builder("device.admission.inflight", limit, AdaptiveLimit::getInFlight)
+                    .description("Admitted requests still in progress")
+                    .tag("budget", tag)
+                    .register(meterRegistry);
+            rejected.put(budget, Counter.builder("device.admission.rejected")
+                    .description("Requests turned away with 503 because the budget's limit was reached")
+                    .tag("budget", tag)
+                    .register(meterRegistry));
+        });
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!settings.isEnabled() || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        AdmissionControlled admission = handlerMethod.getMethodAnnotation(AdmissionControlled.class);
+        if (admission == null) {
+            return true;
+        }
+        AdaptiveLimit limit = limits.get(admission.value());
+        if (!limit.tryAcquire()) {
+            rejected.get(admission.value()).increment();
+            throw new ServiceOverloadedException("Too many concurrent requests, retry later");
+        }
+        request.setAttribute(ADMITTED, new Admitted(limit, System.nanoTime()));
+        return true;
+    }
+
+    // Errors answered with 5xx count as overload, like slow responses; client errors do not
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ADMITTED) instanceof Admitted admitted) {
+            request.removeAttribute(ADMITTED);
+            admitted.limit().release(admitted.startNanos(), System.nanoTime(), ex != null || response.getStatus() >= 500);
+        }
+    }
+
+    // Package-private for AdmissionControlInterceptorTest
+    int getLimit(AdmissionControlled.Budget budget) {
+        return limits.get(budget).getLimit();
+    }
+}
@@ -0,0 +1,20 @@
+package com.challenge.burcakkocak.admission;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marks a handler method whose requests are admitted against the given concurrency budget
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdmissionControlled {
+
+    Budget value();
+
+    enum Budget {
+        READ, WRITE,
+        // Requests over many devices, whose latency grows with their size
+        BULK
+    }
+}
@@ -0,0 +1,171 @@
+package com.challenge.burcakkocak.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.slf4j.event.Level;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "device")
+@Getter
+@Setter
+public class DeviceProperties {
+
+    private final Pagination pagination = new Pagination();
+    private final Export export = new Export();
+    private final Bulk bulk = new Bulk();
+    private final Cache cache = new Cache();
+    private final AccessLog accessLog = new AccessLog();
+    private final WarmUp warmUp = new WarmUp();
+    private final Memory memory = new Memory();
+    private final Changes changes = new Changes();
+    private final Ingest ingest = new Ingest();
+    private final Admission admission = new Admission();
+    private final IdFilter idFilter = new IdFilter();
+    private final TextSearch textSearch = new TextSearch();
+
+    @Getter
+    @Setter
+    public static class Pagination {
+        // Page size used when the client does not send a limit
+        private int defaultLimit = 50;
+        // Larger limits are clamped to this value
+        private int maxLimit = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Export {
+        // JDBC fetch size of the export cursor
+        private int fetchSize = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Bulk {
+        // Devices persisted per transaction
+        private int chunkSize = 500;
+        // Largest array accepted by one bulk request
+        private int maxItems = 50000;
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+        // Devices kept by the getDeviceById cache
+        private long maximumSize = 10000;
+        // How long a cached device is served before it is read again
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    @Getter
+    @Setter
+    public static class AccessLog {
+        private boolean enabled = true;
+        // Level of the per-request event on the "access" logger
+        private Level level = Level.INFO;
+        // Share of requests logged, between 0 and 1; failed and slow requests are always logged
+        private double sampleRate = 1.0;
+        // Requests taking at least this long are always logged
+        private Duration slowThreshold = Duration.ofSeconds(1);
+    }
+
+    @Getter
+    @Setter
+    public static class WarmUp {
+        // Run the read queries before the application reports ready
+        private boolean enabled = true;
+        // Times each read query is run
+        private int iterations = 50;
+    }
+
+    @Getter
+    @Setter
+    public static class Memory {
+        // Snapshot and change log directory of the in-memory store; empty keeps the devices in memory only
+        private String dataDir = "";
+        // Time between snapshots, after which the change log starts over
+        private Duration snapshotInterval = Duration.ofMinutes(1);
+        // Size of one memory-mapped change log segment
+        private DataSize logSegmentSize = DataSize.ofMegabytes(64);
+    }
+
+    @Getter
+    @Setter
+    public static class Changes {
+        // Latest changes kept for /device/changes; a subscriber that falls further behind is disconnected
+        private int bufferSize = 16384;
+        // Comment sent to idle subscribers so dead connections are noticed
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+        // Threads writing to subscribers; a subscriber only holds one while it has changes to send
+        private int senderThreads = 8;
+        // A subscriber whose send has not completed within this time is disconnected
+        private Duration writeTimeout = Duration.ofSeconds(10);
+    }
+
+    @Getter
+    @Setter
+    public static class Ingest {
+        // Devices accepted by POST /device/async and not yet written; when it is full the request gets 429
+        private int queueCapacity = 10000;
+        // Devices written per transaction
+        private int batchSize = 500;
+        // Longest a queued device waits for its batch to fill up
+        private Duration maxDelay = Duration.ofMillis(50);
+        // Sent as Retry-After with 429
+        private Duration retryAfter = Duration.ofSeconds(1);
+        // How long the outcome of a submission can be looked up, and how many are kept
+        private Duration statusTtl = Duration.ofMinutes(10);
+        private long statusMaximumSize = 100000;
+        // Longest shutdown waits for the queue to be written
+        private Duration drainTimeout = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Admission {
+        // Requests over the limit get 503 instead of waiting
+        private boolean enabled = true;
+        // getDeviceById, getAllDevices and searchDeviceByBrand
+        private final Limit reads = new Limit(20, 4, 200, Duration.ofMillis(250));
+        // Creates, updates and deletes of single devices
+        private final Limit writes = new Limit(10, 2, 100, Duration.ofMillis(500));
+        // Bulk adds, deletes and patches; a long import only lowers this limit, never the one of single writes
+        private final Limit bulk = new Limit(4, 1, 16, Duration.ofSeconds(30));
+        // Factor applied to a limit when a request was slow or failed
+        private double backoffRatio = 0.9;
+
+        @Getter
+        @Setter
+        public static class Limit {
+            private int initialLimit;
+            private int minLimit;
+            private int maxLimit;
+            // A request slower than this counts as a sign of overload
+            private Duration latencyThreshold;
+
+            public Limit(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold) {
+                this.initialLimit = initialLimit;
+                this.minLimit = minLimit;
+                this.maxLimit = maxLimit;
+                this.latencyThreshold = latencyThreshold;
+            }
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class IdFilter {
+        // Answer lookups of ids that were never created, or were deleted, with 404 without querying the database
+        private boolean enabled = true;
+    }
+
+    @Getter
+    @Setter
+    public static class TextSearch {
+        // Share of the query's trigrams a device's name and brand must contain to match, between 0 and 1
+        private double minSimilarity = 0.5;
+    }
+}
@@ -0,0 +1,35 @@
+package com.challenge.burcakkocak.config;
+
+import com.challenge.burcakkocak.repo.DeviceStore;
+import com.challenge.burcakkocak.repo.memory.InMemoryDeviceRepo;
+import com.challenge.burcakkocak.repo.memory.InMemoryDeviceStore;
+import com.challenge.burcakkocak.repo.memory.InMemoryTransactionManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+
+// Replaces JPA and H2 with the in-memory store; application-in-memory.properties switches their auto-configuration off
+@Configuration
+@Profile("in-memory")
+public class InMemoryStoreConfig {
+
+    @Bean(initMethod = "open", destroyMethod = "close")
+    public InMemoryDeviceStore inMemoryDeviceStore(DeviceProperties properties) {
+        String dataDir = properties.getMemory().getDataDir();
+        return new InMemoryDeviceStore(dataDir == null || dataDir.isBlank() ? null : Path.of(dataDir),
+                Math.toIntExact(properties.getMemory().getLogSegmentSize().toBytes()));
+    }
+
+    @Bean
+    public DeviceStore deviceRepo(InMemoryDeviceStore store) {
+        return new InMemoryDeviceRepo(store);
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager() {
+        return new InMemoryTransactionManager();
+    }
+}
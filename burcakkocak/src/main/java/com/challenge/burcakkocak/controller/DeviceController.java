@@ -1,13 +1,42 @@
 package com.challenge.burcakkocak.controller;
 
+import com.challenge.burcakkocak.admission.AdmissionControlled;
+import com.challenge.burcakkocak.entity.dto.BrandStatsDTO;
+import com.challenge.burcakkocak.entity.dto.CacheStatsDTO;
+import com.challenge.burcakkocak.entity.dto.CreatedStatsDTO;
+import com.challenge.burcakkocak.entity.dto.DeviceBulkResultDTO;
+import com.challenge.burcakkocak.entity.dto.DeviceDeleteResultDTO;
+import com.challenge.burcakkocak.entity.dto.DevicePageDTO;
 import com.challenge.burcakkocak.entity.dto.DeviceRequestDTO;
 import com.challenge.burcakkocak.entity.dto.DeviceResponseDTO;
+import com.challenge.burcakkocak.entity.dto.DeviceUpdateResultDTO;
+import com.challenge.burcakkocak.entity.dto.IngestStatusDTO;
+import com.challenge.burcakkocak.exception.InvalidRequestException;
+import com.challenge.burcakkocak.repo.DeviceView;
+import com.challenge.burcakkocak.service.BrandStatistics;
+import com.challenge.burcakkocak.service.BrandSuggestionIndex;
+import com.challenge.burcakkocak.service.DeviceBulkService;
+import com.challenge.burcakkocak.service.DeviceChangeFeed;
+import com.challenge.burcakkocak.service.DeviceIngestPipeline;
 import com.challenge.burcakkocak.service.DeviceService;
+import com.challenge.burcakkocak.service.DeviceTextIndex;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -18,91 +47,296 @@ import org.slf4j.LoggerFactory;
 public class DeviceController {
 
     private final DeviceService deviceService;
+    private final DeviceBulkService deviceBulkService;
+    private final BrandSuggestionIndex brandSuggestionIndex;
+    private final BrandStatistics brandStatistics;
+    private final DeviceChangeFeed deviceChangeFeed;
+    private final DeviceIngestPipeline deviceIngestPipeline;
+    private final DeviceTextIndex deviceTextIndex;
+    private final ObjectMapper objectMapper;
+    // Same configuration as objectMapper, writing CBOR
+    private final ObjectMapper cborMapper;
+    private static final String CBOR_SEQ_VALUE = "application/cbor-seq";
+    private static final MediaType CBOR_SEQ = MediaType.parseMediaType(CBOR_SEQ_VALUE);
     private static final Logger logger = LoggerFactory.getLogger(DeviceController.class);
 
-    public DeviceController(DeviceService deviceService) {
+    public DeviceController(DeviceService deviceService, DeviceBulkService deviceBulkService,
+                            BrandSuggestionIndex brandSuggestionIndex, BrandStatistics brandStatistics,
+                            DeviceChangeFeed deviceChangeFeed, DeviceIngestPipeline deviceIngestPipeline,
+                            DeviceTextIndex deviceTextIndex, ObjectMapper objectMapper) {
         this.deviceService = deviceService;
+        this.deviceBulkService = deviceBulkService;
+        this.brandSuggestionIndex = brandSuggestionIndex;
+        this.brandStatistics = brandStatistics;
+        this.deviceChangeFeed = deviceChangeFeed;
+        this.deviceIngestPipeline = deviceIngestPipeline;
+        this.deviceTextIndex = deviceTextIndex;
+        this.objectMapper = objectMapper;
+        this.cborMapper = objectMapper.copyWith(new CBORFactory());
     }
 
     //1. Add Device
+    @AdmissionControlled(AdmissionControlled.Budget.WRITE)
     @PostMapping
     public ResponseEntity<DeviceResponseDTO> addDevice(@Valid @RequestBody DeviceRequestDTO dto) {
-        logger.info("Received POST request to add new device: {}", dto);
+        logger.debug("Received POST request to add new device with brand: {}", dto.getBrand());
         DeviceResponseDTO responseDTO = deviceService.addDevice(dto);
-        logger.info("Device added successfully with id: {}", responseDTO.getId());
+        logger.debug("Device added successfully with id: {}", responseDTO.getId());
         return new ResponseEntity<>(responseDTO, HttpStatus.CREATED);
     }
 
     //2. Get device by ID
+    @AdmissionControlled(AdmissionControlled.Budget.READ)
     @GetMapping("/{id}")
-    public ResponseEntity<DeviceResponseDTO> getDeviceById(@PathVariable Long id) {
-        logger.info("Received GET request to get device with id: {}", id);
-        if (deviceService.getDeviceById(id) != null) {
-            logger.info("Found device with id: {}", id);
-            return new ResponseEntity<>(deviceService.getDeviceById(id), HttpStatus.OK);
-        } else {
-            logger.warn("Device not found with id: {}", id);
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
+    public ResponseEntity<DeviceResponseDTO> getDeviceById(@PathVariable Long id,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("Received GET request to get device with id: {}", id);
+        DeviceResponseDTO device = deviceService.getDeviceById(id); // Throws ResourceNotFoundException, mapped to 404
+        logger.debug("Found device with id: {}", id);
+        return conditionalResponse(device, ETags.of(device), ifNoneMatch);
     }
 
-    //3. List all devices
+    //3. List all devices, one keyset page at a time; createdFrom (inclusive) and createdTo (exclusive) filter by creationTime
+    @AdmissionControlled(AdmissionControlled.Budget.READ)
     @GetMapping
-    public ResponseEntity<List<DeviceResponseDTO>> getAllDevices() {
-        logger.info("Received GET request to get all devices");
-        try {
-            final var devices = deviceService.getAllDevices();
-
-            if (devices.isEmpty()) {
-                logger.warn("No device found");
-                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-            }
-            logger.info("Devices were found");
-            return new ResponseEntity<>(devices, HttpStatus.OK);
-        } catch (Exception e) {
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+    public ResponseEntity<DevicePageDTO> getAllDevices(@RequestParam(required = false) String after,
+                                                       @RequestParam(required = false) Integer limit,
+                                                       @RequestParam(required = false) String createdFrom,
+                                                       @RequestParam(required = false) String createdTo,
+                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("Received GET request to get all devices after: {}, limit: {}, createdFrom: {}, createdTo: {}",
+                after, limit, createdFrom, createdTo);
+        final var page = createdFrom != null || createdTo != null
+                ? deviceService.getDevicesCreatedBetween(createdFrom, createdTo, after, limit)
+                : deviceService.getAllDevices(after, limit);
+
+        if (page.getDevices().isEmpty()) {
+            logger.warn("No device found");
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         }
+        logger.debug("Devices were found");
+        return conditionalResponse(page, ETags.of(page), ifNoneMatch);
     }
 
-    // 4. Update device fully
+    // 4. Update device fully, only if it still matches If-Match when the header is sent
+    @AdmissionControlled(AdmissionControlled.Budget.WRITE)
     @PutMapping("/{id}")
     public ResponseEntity<DeviceResponseDTO> updateDevice(@PathVariable Long id,
-                                                          @Valid @RequestBody DeviceRequestDTO dto) {
-        logger.info("Received PUT request to update device with id: {}", id);
-        return new ResponseEntity<>(deviceService.updateDevice(id, dto), HttpStatus.OK);
+                                                          @Valid @RequestBody DeviceRequestDTO dto,
+                                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.debug("Received PUT request to update device with id: {}", id);
+        DeviceResponseDTO device = deviceService.updateDevice(id, dto, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(device)).body(device);
     }
 
     // 5. Update device partially
+    @AdmissionControlled(AdmissionControlled.Budget.WRITE)
     @PatchMapping("/{id}")
     public ResponseEntity<DeviceResponseDTO> updateDevicePartially(@PathVariable Long id,
-                                                                   @RequestBody DeviceRequestDTO dto) {
-        logger.info("Received PATCH request to update device with id: {}", id);
-        return new ResponseEntity<>(deviceService.updateDevicePartially(id, dto), HttpStatus.OK);
+                                                                   @RequestBody DeviceRequestDTO dto,
+                                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.debug("Received PATCH request to update device with id: {}", id);
+        DeviceResponseDTO device = deviceService.updateDevicePartially(id, dto, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(device)).body(device);
     }
 
     // 6. Delete device
+    @AdmissionControlled(AdmissionControlled.Budget.WRITE)
     @DeleteMapping("/{id}")
-    public void deleteDevice(@PathVariable Long id) {
-        logger.info("Received DELETE request with id: {}", id);
-        deviceService.deleteDevice(id);
-        logger.info("Device was deleted with id: {}", id);
+    public void deleteDevice(@PathVariable Long id,
+                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.debug("Received DELETE request with id: {}", id);
+        deviceService.deleteDevice(id, ETags.expectedVersion(ifMatch));
+        logger.debug("Device was deleted with id: {}", id);
     }
 
-    // 7. Search device
+    // 7. Search device by brand, case-insensitive, paginated like the list endpoint
+    @AdmissionControlled(AdmissionControlled.Budget.READ)
     @GetMapping("/search")
-    public ResponseEntity<List<DeviceResponseDTO>> searchDeviceByBrand(@RequestParam String brand) {
-        logger.info("Received GET request to search device with brand: {}", brand);
-        try {
-            final var foundDevices = deviceService.searchDeviceByBrand(brand);
-
-            if (foundDevices.isEmpty()) {
-                logger.warn("No device found");
-                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    public ResponseEntity<DevicePageDTO> searchDeviceByBrand(@RequestParam String brand,
+                                                             @RequestParam(defaultValue = "false") boolean prefix,
+                                                             @RequestParam(required = false) String after,
+                                                             @RequestParam(required = false) Integer limit,
+                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("Received GET request to search device with brand: {}, prefix: {}", brand, prefix);
+        final var foundDevices = deviceService.searchDeviceByBrand(brand, prefix, after, limit);
+
+        if (foundDevices.getDevices().isEmpty()) {
+            logger.warn("No device found");
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        logger.debug("Devices were found");
+        return conditionalResponse(foundDevices, ETags.of(foundDevices), ifNoneMatch);
+    }
+
+    // 8. Export all devices as newline-delimited JSON, written while the rows are read;
+    // Accept: application/cbor-seq gets a sequence of CBOR items (RFC 8742) instead
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, CBOR_SEQ_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportDevices(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        logger.debug("Received GET request to export all devices as: {}", accept);
+        if (prefersCborSeq(accept)) {
+            return ResponseEntity.ok().contentType(CBOR_SEQ).body(export(cborMapper, false));
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(export(objectMapper, true));
+    }
+
+    // 9. Add devices in bulk, items are validated one by one
+    @AdmissionControlled(AdmissionControlled.Budget.BULK)
+    @PostMapping("/bulk")
+    public ResponseEntity<List<DeviceBulkResultDTO>> addDevices(@RequestBody List<DeviceRequestDTO> dtos) {
+        logger.debug("Received POST request to add {} devices", dtos.size());
+        List<DeviceBulkResultDTO> results = deviceBulkService.addDevices(dtos);
+
+        boolean allCreated = results.stream().allMatch(result -> result.getStatus() == DeviceBulkResultDTO.Status.CREATED);
+        logger.debug("Bulk request processed, all devices created: {}", allCreated);
+        return new ResponseEntity<>(results, allCreated ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS);
+    }
+
+    // 10. Suggest brands for type-ahead, served from memory
+    @GetMapping("/brands/suggest")
+    public ResponseEntity<List<String>> suggestBrands(@RequestParam(defaultValue = "") String prefix,
+                                                      @RequestParam(defaultValue = "10") int limit) {
+        logger.debug("Received GET request to suggest brands with prefix: {}", prefix);
+        return new ResponseEntity<>(brandSuggestionIndex.suggest(prefix, limit), HttpStatus.OK);
+    }
+
+    // 11. Hit, miss and eviction counters of the device cache
+    @GetMapping("/cache/stats")
+    public ResponseEntity<CacheStatsDTO> getCacheStats() {
+        return new ResponseEntity<>(deviceService.getCacheStats(), HttpStatus.OK);
+    }
+
+    // 12. Delete many devices, either by id in one statement or by brand (case-insensitive) in chunks of bulk.chunk-size
+    @AdmissionControlled(AdmissionControlled.Budget.BULK)
+    @DeleteMapping
+    public ResponseEntity<DeviceDeleteResultDTO> deleteDevices(@RequestParam(required = false) List<Long> ids,
+                                                               @RequestParam(required = false) String brand) {
+        logger.debug("Received DELETE request for ids: {}, brand: {}", ids == null ? null : ids.size(), brand);
+        boolean byIds = filtersByIds(ids, brand);
+        long deleted = byIds ? deviceService.deleteDevices(ids) : deviceBulkService.deleteDevicesByBrand(brand);
+        logger.debug("Deleted {} devices", deleted);
+        return new ResponseEntity<>(new DeviceDeleteResultDTO(deleted), HttpStatus.OK);
+    }
+
+    // 13. Apply the same partial update to many devices, selected by id in one statement or by brand in chunks
+    @AdmissionControlled(AdmissionControlled.Budget.BULK)
+    @PatchMapping("/bulk")
+    public ResponseEntity<DeviceUpdateResultDTO> patchDevices(@RequestParam(required = false) List<Long> ids,
+                                                              @RequestParam(required = false) String brand,
+                                                              @RequestBody DeviceRequestDTO dto) {
+        logger.debug("Received bulk PATCH request for ids: {}, brand: {}", ids == null ? null : ids.size(), brand);
+        boolean byIds = filtersByIds(ids, brand);
+        long updated = byIds ? deviceService.patchDevices(ids, dto) : deviceBulkService.patchDevicesByBrand(brand, dto);
+        logger.debug("Updated {} devices", updated);
+        return new ResponseEntity<>(new DeviceUpdateResultDTO(updated), HttpStatus.OK);
+    }
+
+    // 14. Device count and creationTime range per brand, served from memory
+    @GetMapping("/stats/brands")
+    public ResponseEntity<List<BrandStatsDTO>> getBrandStatistics() {
+        return new ResponseEntity<>(brandStatistics.getStatistics(), HttpStatus.OK);
+    }
+
+    // 15. Number of devices created per hour or day, counted by the database
+    @GetMapping("/stats/created")
+    public ResponseEntity<List<CreatedStatsDTO>> getCreatedStatistics(@RequestParam(defaultValue = "day") String bucket,
+                                                                      @RequestParam(required = false) String createdFrom,
+                                                                      @RequestParam(required = false) String createdTo) {
+        logger.debug("Received GET request for created statistics per {}", bucket);
+        return new ResponseEntity<>(deviceService.countDevicesCreated(bucket, createdFrom, createdTo), HttpStatus.OK);
+    }
+
+    // 16. Committed creates, updates and deletes as server-sent events; Last-Event-ID resumes an interrupted stream
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        logger.debug("Received GET request to stream changes after: {}", lastEventId);
+        return new ResponseEntity<>(deviceChangeFeed.subscribe(lastEventId), HttpStatus.OK);
+    }
+
+    // NDJSON unless cbor-seq is named explicitly with a higher quality than anything covering NDJSON
+    private static boolean prefersCborSeq(String accept) {
+        double cbor = 0;
+        double ndjson = 0;
+        for (MediaType type : MediaType.parseMediaTypes(accept)) {
+            if (type.equalsTypeAndSubtype(CBOR_SEQ)) {
+                cbor = Math.max(cbor, type.getQualityValue());
+            } else if (type.includes(MediaType.APPLICATION_NDJSON)) {
+                ndjson = Math.max(ndjson, type.getQualityValue());
             }
-            logger.info("Devices were found");
-            return new ResponseEntity<>(foundDevices, HttpStatus.OK);
-        } catch (Exception e) {
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
+        return cbor > ndjson;
+    }
+
+    private StreamingResponseBody export(ObjectMapper mapper, boolean newlineDelimited) {
+        return outputStream -> {
+            JsonGenerator generator = mapper.createGenerator(outputStream);
+            if (newlineDelimited) {
+                generator.setRootValueSeparator(null);
+            }
+            // Let the servlet buffer decide when to flush instead of flushing every row
+            ObjectWriter writer = mapper.writerFor(DeviceView.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            deviceService.exportDevices(device -> {
+                try {
+                    writer.writeValue(generator, device);
+                    if (newlineDelimited) {
+                        generator.writeRaw('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+    }
+
+    // 17. Queue a device for a batched background write; 429 with Retry-After when the queue is full
+    @PostMapping("/async")
+    public ResponseEntity<IngestStatusDTO> addDeviceAsync(@Valid @RequestBody DeviceRequestDTO dto) {
+        logger.debug("Received POST request to queue new device with brand: {}", dto.getBrand());
+        IngestStatusDTO status = deviceIngestPipeline.submit(dto);
+        return ResponseEntity.accepted().location(URI.create("/device/async/" + status.getToken())).body(status);
+    }
+
+    // 18. Outcome of a queued device, kept for device.ingest.status-ttl
+    @GetMapping("/async/{token}")
+    public ResponseEntity<IngestStatusDTO> getIngestStatus(@PathVariable String token) {
+        return new ResponseEntity<>(deviceIngestPipeline.getStatus(token), HttpStatus.OK);
+    }
+
+    // 19. Fuzzy search over name and brand, ranked by shared trigrams and served from memory;
+    // the cursor is a position in the ranking, so a page may shift if devices change in between
+    @GetMapping("/search/text")
+    public ResponseEntity<DevicePageDTO> searchDevicesByText(@RequestParam(required = false) String q,
+                                                             @RequestParam(required = false) String after,
+                                                             @RequestParam(required = false) Integer limit,
+                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("Received GET request to search devices by text: {}, after: {}, limit: {}", q, after, limit);
+        final var page = deviceTextIndex.search(q, after, limit);
+
+        if (page.getDevices().isEmpty()) {
+            logger.warn("No device found");
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return conditionalResponse(page, ETags.of(page), ifNoneMatch);
+    }
+
+    // Bulk endpoints select devices either by ids or by brand, never both
+    private boolean filtersByIds(List<Long> ids, String brand) {
+        boolean byIds = ids != null && !ids.isEmpty();
+        boolean byBrand = brand != null && !brand.isBlank();
+        if (byIds == byBrand) {
+            throw new InvalidRequestException("Exactly one of ids or brand is required");
+        }
+        return byIds;
+    }
+
+    // 304 without a body when the client already holds this representation
+    // The body is negotiated from Accept (JSON, CBOR or Smile) while the ETag is not, so caches must key on Accept
+    private <T> ResponseEntity<T> conditionalResponse(T body, String etag, String ifNoneMatch) {
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(body);
     }
 }
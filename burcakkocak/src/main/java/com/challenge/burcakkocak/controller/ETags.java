@@ -0,0 +1,80 @@
+package com.challenge.burcakkocak.controller;
+
+import com.challenge.burcakkocak.entity.dto.DevicePageDTO;
+import com.challenge.burcakkocak.entity.dto.DeviceResponseDTO;
+import com.challenge.burcakkocak.exception.PreconditionFailedException;
+import com.challenge.burcakkocak.repo.DeviceView;
+
+/**
+ * ETags derived from the device version column. A single device's ETag is its quoted version;
+ * a page's ETag hashes the id and version of every device on it together with the next cursor.
+ * Page ETags are weak: they stand for the same devices in every encoding (JSON, CBOR, Smile, gzip), and Tomcat only
+ * compresses responses without a strong ETag.
+ */
+public final class ETags {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ETags() {
+    }
+
+    public static String of(DeviceResponseDTO device) {
+        return "\"" + device.getVersion() + "\"";
+    }
+
+    public static String of(DevicePageDTO page) {
+        long hash = FNV_OFFSET;
+        for (DeviceView device : page.getDevices()) {
+            hash = mix(hash, device.id() == null ? 0 : device.id());
+            hash = mix(hash, device.version() == null ? -1 : device.version());
+        }
+        if (page.getNextCursor() != null) {
+            hash = mix(hash, page.getNextCursor().hashCode());
+        }
+        return "W/\"p" + Long.toHexString(hash) + "\"";
+    }
+
+    // Weak comparison, as required for If-None-Match
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || stripWeak(trimmed).equals(stripWeak(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Version the client expects to change, or null when If-Match is absent or "*"
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String etag = ifMatch.trim();
+        // If-Match uses strong comparison, so weak and malformed tags can never match
+        if (etag.length() < 3 || !etag.startsWith("\"") || !etag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match does not match the current version: " + ifMatch);
+        }
+        try {
+            return Long.parseLong(etag.substring(1, etag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not match the current version: " + ifMatch);
+        }
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < 8; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -2,22 +2,32 @@ package com.challenge.burcakkocak.entity;
 
 import lombok.*;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
-@Table(name = "Device")
+@DynamicUpdate // UPDATE statements only set the columns that changed
+@Table(name = "Device", indexes = {
+        // Serves case-insensitive exact and prefix brand searches, already ordered by id for keyset pages
+        @Index(name = "idx_device_brand_key", columnList = "brand_key, id"),
+        @Index(name = "idx_device_name", columnList = "name"),
+        // Serves creationTime range pages, ordered by (creation_time, id), and the per-hour/day counts
+        @Index(name = "idx_device_creation_time", columnList = "creation_time, id")
+})
 @NoArgsConstructor
-@AllArgsConstructor
 @Setter
 @Getter
 @ToString
 public class Device implements Serializable {
 
+    // Sequence ids keep JDBC insert batching possible; ids are handed out in blocks of 50 (pooled optimizer)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "device_seq")
+    @SequenceGenerator(name = "device_seq", sequenceName = "device_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -26,7 +36,32 @@ public class Device implements Serializable {
     @Column(nullable = false)
     private String brand;
 
+    // Lower-cased copy of brand, kept in sync by setBrand
+    @Column(name = "brand_key", nullable = false)
+    @Setter(AccessLevel.NONE)
+    private String brandKey;
+
     @Column(name = "creation_time")
     @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime creationTime;
+
+    // Incremented on every update; exposed as the ETag and checked against If-Match
+    @Version
+    private Long version;
+
+    public Device(Long id, String name, String brand, LocalDateTime creationTime) {
+        this.id = id;
+        this.name = name;
+        setBrand(brand);
+        this.creationTime = creationTime;
+    }
+
+    public void setBrand(String brand) {
+        this.brand = brand;
+        this.brandKey = toBrandKey(brand);
+    }
+
+    public static String toBrandKey(String brand) {
+        return brand == null ? null : brand.toLowerCase(Locale.ROOT);
+    }
 }
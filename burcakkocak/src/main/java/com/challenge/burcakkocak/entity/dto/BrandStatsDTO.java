@@ -0,0 +1,15 @@
+package com.challenge.burcakkocak.entity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BrandStatsDTO {
+    private String brand;
+    private long count;
+    private String firstCreationTime; // Earliest creationTime of the brand's devices
+    private String lastCreationTime;  // Latest creationTime of the brand's devices
+}
@@ -0,0 +1,13 @@
+package com.challenge.burcakkocak.entity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreatedStatsDTO {
+    private String bucket; // Start of the hour or day, yyyy-MM-dd'T'HH:mm:ss
+    private long count;
+}
@@ -0,0 +1,24 @@
+package com.challenge.burcakkocak.entity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeviceBulkResultDTO {
+
+    public enum Status {
+        CREATED, // Persisted, see device
+        INVALID, // Rejected by validation, see errors
+        FAILED   // Valid but its chunk could not be persisted, see errors
+    }
+
+    private int index; // Position of the item in the request array
+    private Status status;
+    private DeviceResponseDTO device;
+    private Map<String, String> errors;
+}
@@ -0,0 +1,14 @@
+package com.challenge.burcakkocak.entity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeviceChangeDTO {
+    private String type; // CREATED, UPDATED, DELETED, or RESET when the client missed changes and must reload
+    private Long id;
+    private DeviceResponseDTO device; // State after the change; for DELETED, the state that was removed
+}
@@ -0,0 +1,16 @@
+package com.challenge.burcakkocak.entity.dto;
+
+import com.challenge.burcakkocak.repo.DeviceView;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DevicePageDTO {
+    private List<DeviceView> devices; // Written in the DeviceResponseDTO shape by DeviceViewSerializer
+    private String nextCursor; // Pass as "after" to fetch the next page, null on the last page
+}
@@ -1,7 +1,7 @@
 package com.challenge.burcakkocak.entity.dto;
 
+import com.challenge.burcakkocak.mapper.TimestampFormat;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Pattern;
 import lombok.Data;
 
 @Data
@@ -12,6 +12,6 @@ public class DeviceRequestDTO {
     @NotBlank(message = "Brand is required")
     private String brand;
 
-    @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}", message = "Creation time must be in the format yyyy-MM-dd'T'HH:mm:ss")
+    @TimestampFormat
     private String creationTime; // Input as string
 }
@@ -8,4 +8,5 @@ public class DeviceResponseDTO {
     private String name;
     private String brand;
     private String creationTime; // Output formatted
+    private Long version;
 }
@@ -0,0 +1,22 @@
+package com.challenge.burcakkocak.entity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestStatusDTO {
+
+    public enum Status {
+        QUEUED,  // Accepted and waiting for its batch
+        CREATED, // Persisted, see device
+        FAILED   // Its batch could not be persisted, see error
+    }
+
+    private String token; // Look the submission up with GET /device/async/{token}
+    private Status status;
+    private DeviceResponseDTO device;
+    private String error;
+}
@@ -0,0 +1,36 @@
+package com.challenge.burcakkocak.event;
+
+import com.challenge.burcakkocak.entity.Device;
+
+/**
+ * Published by DeviceService for every device it creates, updates or deletes.
+ * In-memory views of the table listen with @TransactionalEventListener so they only see committed changes.
+ */
+public record DeviceChangedEvent(Type type, DeviceSnapshot before, DeviceSnapshot after) {
+
+    public enum Type {
+        CREATED, // before is null
+        UPDATED,
+        DELETED  // after is null
+    }
+
+    public static DeviceChangedEvent created(Device device) {
+        return new DeviceChangedEvent(Type.CREATED, null, DeviceSnapshot.of(device));
+    }
+
+    public static DeviceChangedEvent updated(DeviceSnapshot before, Device device) {
+        return new DeviceChangedEvent(Type.UPDATED, before, DeviceSnapshot.of(device));
+    }
+
+    public static DeviceChangedEvent updated(DeviceSnapshot before, DeviceSnapshot after) {
+        return new DeviceChangedEvent(Type.UPDATED, before, after);
+    }
+
+    public static DeviceChangedEvent deleted(DeviceSnapshot before) {
+        return new DeviceChangedEvent(Type.DELETED, before, null);
+    }
+
+    public Long id() {
+        return after != null ? after.id() : before.id();
+    }
+}
@@ -0,0 +1,18 @@
+package com.challenge.burcakkocak.event;
+
+import com.challenge.burcakkocak.entity.Device;
+import com.challenge.burcakkocak.repo.DeviceView;
+
+import java.time.LocalDateTime;
+
+// Immutable copy of a device's state, safe to hand to listeners after the transaction has ended
+public record DeviceSnapshot(Long id, String name, String brand, LocalDateTime creationTime, Long version) {
+
+    public static DeviceSnapshot of(Device device) {
+        return new DeviceSnapshot(device.getId(), device.getName(), device.getBrand(), device.getCreationTime(), device.getVersion());
+    }
+
+    public static DeviceSnapshot of(DeviceView device) {
+        return new DeviceSnapshot(device.id(), device.name(), device.brand(), device.creationTime(), device.version());
+    }
+}
@@ -0,0 +1,23 @@
+package com.challenge.burcakkocak.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+// Backpressure from the ingest queue; the client should send the device again after retryAfter
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS)
+public class IngestRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public IngestRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    // Whole seconds for the Retry-After header, at least 1
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
+}
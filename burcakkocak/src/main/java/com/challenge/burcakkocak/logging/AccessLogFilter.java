@@ -0,0 +1,96 @@
+package com.challenge.burcakkocak.logging;
+
+import com.challenge.burcakkocak.config.DeviceProperties;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes one key=value event per request to the "access" logger, sampled by device.access-log.sample-rate.
+ * Server errors and requests slower than device.access-log.slow-threshold are always logged.
+ * Streamed responses are logged when the async request completes.
+ */
+@Component
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final Logger accessLogger = LoggerFactory.getLogger("access");
+
+    private final DeviceProperties properties;
+
+    public AccessLogFilter(DeviceProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        DeviceProperties.AccessLog accessLog = properties.getAccessLog();
+        return !accessLog.isEnabled() || !accessLogger.isEnabledForLevel(accessLog.getLevel());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        log(request, response, start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                log(request, response, start);
+            }
+        }
+    }
+
+    private void log(HttpServletRequest request, HttpServletResponse response, long start) {
+        long durationNanos = System.nanoTime() - start;
+        int status = response.getStatus();
+        if (!isSampled(status, durationNanos)) {
+            return;
+        }
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Level level = properties.getAccessLog().getLevel();
+        accessLogger.atLevel(level).log("method={} path={} route={} status={} durationMs={} sampleRate={}",
+                request.getMethod(), request.getRequestURI(), route != null ? route : "-", status,
+                durationNanos / 1_000 / 1000.0, properties.getAccessLog().getSampleRate());
+    }
+
+    // Package-private for AccessLogFilterTest
+    boolean isSampled(int status, long durationNanos) {
+        DeviceProperties.AccessLog accessLog = properties.getAccessLog();
+        if (status >= 500 || durationNanos >= accessLog.getSlowThreshold().toNanos()) {
+            return true;
+        }
+        double sampleRate = accessLog.getSampleRate();
+        return sampleRate >= 1.0 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+}
@@ -0,0 +1,30 @@
+package com.challenge.burcakkocak.logging;
+
+import ch.qos.logback.core.joran.action.ConversionRuleAction;
+import ch.qos.logback.core.status.OnConsoleStatusListener;
+import ch.qos.logback.core.status.Status;
+
+/**
+ * Prints logback's own warnings and errors, such as a broken appender, to the console, except the deprecation warning
+ * logback 1.5 reports for every conversionRule in Spring Boot's defaults.xml at each start.
+ */
+public class LogbackStatusListener extends OnConsoleStatusListener {
+
+    public LogbackStatusListener() {
+        // Statuses from before the listener was added would be printed unfiltered
+        setRetrospective(0L);
+    }
+
+    @Override
+    public void addStatusEvent(Status status) {
+        if (status.getLevel() < Status.WARN || isConversionRuleDeprecation(status)) {
+            return;
+        }
+        super.addStatusEvent(status);
+    }
+
+    private static boolean isConversionRuleDeprecation(Status status) {
+        return status.getLevel() == Status.WARN && status.getOrigin() instanceof ConversionRuleAction
+                && status.getMessage().contains("deprecated");
+    }
+}
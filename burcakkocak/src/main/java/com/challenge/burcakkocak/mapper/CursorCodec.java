@@ -0,0 +1,62 @@
+package com.challenge.burcakkocak.mapper;
+
+import com.challenge.burcakkocak.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Encodes the keyset position of a page into an opaque cursor token.
+ * Clients must treat the token as a black box and only echo it back as "after".
+ */
+public final class CursorCodec {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private CursorCodec() {
+    }
+
+    // Keyset position of a page ordered by creationTime, then id
+    public record TimeKey(LocalDateTime creationTime, long id) {
+    }
+
+    public static String encode(long lastId) {
+        return ENCODER.encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // Returns 0 (before the first id) when no cursor is given
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(new String(DECODER.decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static String encode(LocalDateTime creationTime, long lastId) {
+        return ENCODER.encodeToString((creationTime + "|" + lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // Returns null when no cursor is given
+    public static TimeKey decodeTimeKey(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String value = new String(DECODER.decode(cursor), StandardCharsets.US_ASCII);
+            int separator = value.indexOf('|');
+            if (separator < 0) {
+                throw new InvalidRequestException("Invalid cursor: " + cursor);
+            }
+            return new TimeKey(LocalDateTime.parse(value.substring(0, separator)), Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.challenge.burcakkocak.mapper;
+
+import com.challenge.burcakkocak.repo.DeviceView;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a projected row in the same shape as DeviceResponseDTO, so list pages and exports serialize rows
+ * without building a DTO and a formatted creationTime String for each of them.
+ */
+public class DeviceViewSerializer extends StdSerializer<DeviceView> {
+
+    // Field names encoded once instead of per row
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString BRAND = new SerializedString("brand");
+    private static final SerializableString CREATION_TIME = new SerializedString("creationTime");
+    private static final SerializableString VERSION = new SerializedString("version");
+
+    public DeviceViewSerializer() {
+        super(DeviceView.class);
+    }
+
+    @Override
+    public void serialize(DeviceView view, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(view);
+        generator.writeFieldName(ID);
+        writeNumber(view.id(), generator);
+        generator.writeFieldName(NAME);
+        generator.writeString(view.name());
+        generator.writeFieldName(BRAND);
+        generator.writeString(view.brand());
+        generator.writeFieldName(CREATION_TIME);
+        if (view.creationTime() == null) {
+            generator.writeNull();
+        } else {
+            TimestampCodec.write(view.creationTime(), generator);
+        }
+        generator.writeFieldName(VERSION);
+        writeNumber(view.version(), generator);
+        generator.writeEndObject();
+    }
+
+    private static void writeNumber(Long value, JsonGenerator generator) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value.longValue());
+        }
+    }
+}
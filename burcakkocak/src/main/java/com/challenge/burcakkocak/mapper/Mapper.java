@@ -3,22 +3,44 @@ package com.challenge.burcakkocak.mapper;
 import com.challenge.burcakkocak.entity.dto.DeviceRequestDTO;
 import com.challenge.burcakkocak.entity.dto.DeviceResponseDTO;
 import com.challenge.burcakkocak.entity.Device;
+import com.challenge.burcakkocak.event.DeviceSnapshot;
+import com.challenge.burcakkocak.repo.DeviceView;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 @Component
 public class Mapper {
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
-
     // Convert Entity to Response DTO
     public DeviceResponseDTO toResponseDTO(Device device){
         DeviceResponseDTO dto = new DeviceResponseDTO();
         dto.setId(device.getId());
         dto.setName(device.getName());
         dto.setBrand(device.getBrand());
-        dto.setCreationTime(device.getCreationTime().format(FORMATTER)); // Convert LocalDateTime to String
+        dto.setCreationTime(TimestampCodec.format(device.getCreationTime())); // Convert LocalDateTime to String
+        dto.setVersion(device.getVersion());
+        return dto;
+    }
+
+    // Convert a projected row to Response DTO
+    public DeviceResponseDTO toResponseDTO(DeviceView view) {
+        DeviceResponseDTO dto = new DeviceResponseDTO();
+        dto.setId(view.id());
+        dto.setName(view.name());
+        dto.setBrand(view.brand());
+        dto.setCreationTime(TimestampCodec.format(view.creationTime()));
+        dto.setVersion(view.version());
+        return dto;
+    }
+
+    // Convert the state carried by a change event to Response DTO
+    public DeviceResponseDTO toResponseDTO(DeviceSnapshot snapshot) {
+        DeviceResponseDTO dto = new DeviceResponseDTO();
+        dto.setId(snapshot.id());
+        dto.setName(snapshot.name());
+        dto.setBrand(snapshot.brand());
+        dto.setCreationTime(TimestampCodec.format(snapshot.creationTime()));
+        dto.setVersion(snapshot.version());
         return dto;
     }
 
@@ -31,7 +53,7 @@ public class Mapper {
         // Check if the creationTime is provided
         if (dto.getCreationTime() != null && !dto.getCreationTime().isEmpty()) {
             // Parse the string to LocalDateTime
-            device.setCreationTime(LocalDateTime.parse(dto.getCreationTime(), FORMATTER));
+            device.setCreationTime(TimestampCodec.parse(dto.getCreationTime()));
         } else {
             // Set the current time if no creationTime is provided
             device.setCreationTime(LocalDateTime.now());
@@ -0,0 +1,125 @@
+package com.challenge.burcakkocak.mapper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parses and formats the fixed yyyy-MM-dd'T'HH:mm:ss timestamps of the API without a DateTimeFormatter.
+ * Parsing checks the digits, separators and calendar ranges in one pass over the text; formatting writes
+ * the digits into a char array, which {@link #write} hands to the JSON generator without building a String.
+ * The generator copies the characters into its own buffer, so {@link #write} reuses one array per thread.
+ * Years outside 1-9999, which the fixed width cannot hold, are formatted by DateTimeFormatter.
+ */
+public final class TimestampCodec {
+
+    public static final String PATTERN = "yyyy-MM-dd'T'HH:mm:ss";
+
+    private static final int LENGTH = 19;
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(PATTERN);
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[LENGTH]);
+
+    private TimestampCodec() {
+    }
+
+    public static LocalDateTime parse(String text) {
+        LocalDateTime time = parseOrNull(text);
+        if (time == null) {
+            throw new DateTimeParseException("Text '" + text + "' is not a valid timestamp in the format " + PATTERN, text, 0);
+        }
+        return time;
+    }
+
+    public static boolean isValid(CharSequence text) {
+        return parseOrNull(text) != null;
+    }
+
+    public static String format(LocalDateTime time) {
+        if (!fits(time)) {
+            return time.format(FORMATTER);
+        }
+        char[] chars = new char[LENGTH];
+        fill(time, chars);
+        return new String(chars);
+    }
+
+    // Writes the timestamp as a JSON string value
+    public static void write(LocalDateTime time, JsonGenerator generator) throws IOException {
+        if (!fits(time)) {
+            generator.writeString(time.format(FORMATTER));
+            return;
+        }
+        char[] chars = BUFFER.get();
+        fill(time, chars);
+        generator.writeString(chars, 0, LENGTH);
+    }
+
+    private static LocalDateTime parseOrNull(CharSequence text) {
+        if (text == null || text.length() != LENGTH
+                || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+                || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            return null;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        // A non-digit makes its field negative, so the range checks reject it as well
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second);
+    }
+
+    private static int digits(CharSequence text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static boolean fits(LocalDateTime time) {
+        return time.getYear() >= 1 && time.getYear() <= 9999;
+    }
+
+    private static void fill(LocalDateTime time, char[] chars) {
+        int year = time.getYear();
+        chars[0] = (char) ('0' + year / 1000);
+        chars[1] = (char) ('0' + year / 100 % 10);
+        twoDigits(chars, 2, year % 100);
+        chars[4] = '-';
+        twoDigits(chars, 5, time.getMonthValue());
+        chars[7] = '-';
+        twoDigits(chars, 8, time.getDayOfMonth());
+        chars[10] = 'T';
+        twoDigits(chars, 11, time.getHour());
+        chars[13] = ':';
+        twoDigits(chars, 14, time.getMinute());
+        chars[16] = ':';
+        twoDigits(chars, 17, time.getSecond());
+    }
+
+    private static void twoDigits(char[] chars, int at, int value) {
+        chars[at] = (char) ('0' + value / 10);
+        chars[at + 1] = (char) ('0' + value % 10);
+    }
+}
@@ -0,0 +1,31 @@
+package com.challenge.burcakkocak.mapper;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// The value is null or a real date and time in the yyyy-MM-dd'T'HH:mm:ss format, checked by TimestampCodec
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = TimestampFormat.Validator.class)
+public @interface TimestampFormat {
+
+    String message() default "Creation time must be in the format yyyy-MM-dd'T'HH:mm:ss";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    class Validator implements ConstraintValidator<TimestampFormat, String> {
+        @Override
+        public boolean isValid(String value, ConstraintValidatorContext context) {
+            return value == null || TimestampCodec.isValid(value);
+        }
+    }
+}
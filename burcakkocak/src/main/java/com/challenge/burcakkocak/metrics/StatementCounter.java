@@ -0,0 +1,33 @@
+package com.challenge.burcakkocak.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, see StatementMetricsInterceptor.
+ */
+@Component
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        long[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql; // Statement is not changed
+    }
+
+    public void start() {
+        COUNT.set(new long[1]);
+    }
+
+    // Returns the statements counted since start(), or -1 when counting was not started on this thread
+    public long stop() {
+        long[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? -1 : count[0];
+    }
+}
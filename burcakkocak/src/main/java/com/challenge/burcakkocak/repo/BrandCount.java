@@ -0,0 +1,7 @@
+package com.challenge.burcakkocak.repo;
+
+public interface BrandCount {
+    String getBrand();
+
+    long getCount();
+}
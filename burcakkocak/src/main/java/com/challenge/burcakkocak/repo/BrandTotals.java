@@ -0,0 +1,13 @@
+package com.challenge.burcakkocak.repo;
+
+import java.time.LocalDateTime;
+
+public interface BrandTotals {
+    String getBrand();
+
+    long getCount();
+
+    LocalDateTime getFirstCreationTime();
+
+    LocalDateTime getLastCreationTime();
+}
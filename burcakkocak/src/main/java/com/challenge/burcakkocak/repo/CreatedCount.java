@@ -0,0 +1,7 @@
+package com.challenge.burcakkocak.repo;
+
+import java.time.LocalDateTime;
+
+// Number of devices created in the bucket starting at the given time
+public record CreatedCount(LocalDateTime bucket, long count) {
+}
@@ -0,0 +1,11 @@
+package com.challenge.burcakkocak.repo;
+
+import java.time.LocalDateTime;
+
+// Fields a bulk update sets on every matching device; null fields are left unchanged
+public record DevicePatch(String name, String brand, LocalDateTime creationTime) {
+
+    public boolean isEmpty() {
+        return name == null && brand == null && creationTime == null;
+    }
+}
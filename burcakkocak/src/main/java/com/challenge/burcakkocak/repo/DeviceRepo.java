@@ -1,13 +1,53 @@
 package com.challenge.burcakkocak.repo;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import com.challenge.burcakkocak.entity.Device;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface DeviceRepo extends JpaRepository<Device, Long> {
+// The JPA implementation of DeviceStore; the queries below and DeviceRepoImpl back its methods
+public interface DeviceRepo extends JpaRepository<Device, Long>, DeviceStore {
 
-    @Query("SELECT d FROM Device d WHERE d.brand = :brand")
-    List<Device> findByBrand(String brand);
+    String DEVICE_VIEW = "SELECT new com.challenge.burcakkocak.repo.DeviceView(d.id, d.name, d.brand, d.creationTime, d.version) FROM Device d ";
+
+    // Read paths project into DeviceView, so no entity is hydrated or snapshotted for dirty checking
+    @Query(DEVICE_VIEW + "WHERE d.id = :id")
+    Optional<DeviceView> findViewById(Long id);
+
+    // Keyset pages: seek past the last id of the previous page instead of using OFFSET
+    @Query(DEVICE_VIEW + "WHERE d.id > :after ORDER BY d.id")
+    List<DeviceView> findPageAfter(Long after, Limit limit);
+
+    // Keyset pages of ids only, read through the primary key index
+    @Query("SELECT d.id FROM Device d WHERE d.id > :after ORDER BY d.id")
+    List<Long> findIdsAfter(Long after, Limit limit);
+
+    // Brand searches go through the lower-cased, indexed brand_key column
+    @Query(DEVICE_VIEW + "WHERE d.brandKey = :brandKey AND d.id > :after ORDER BY d.id")
+    List<DeviceView> findPageByBrandKeyAfter(String brandKey, Long after, Limit limit);
+
+    @Query(DEVICE_VIEW + "WHERE d.brandKey LIKE :brandKeyPattern ESCAPE '\\' AND d.id > :after ORDER BY d.id")
+    List<DeviceView> findPageByBrandKeyLikeAfter(String brandKeyPattern, Long after, Limit limit);
+
+    // Range pages seek past (creationTime, id) of the previous page; the caller passes the cursor's creationTime as
+    // createdFrom, so the index range starts there and only ties on creationTime are filtered by id
+    @Query(DEVICE_VIEW + "WHERE d.creationTime >= :createdFrom AND d.creationTime < :createdTo "
+            + "AND (d.creationTime > :createdFrom OR d.id > :afterId) ORDER BY d.creationTime, d.id")
+    List<DeviceView> findPageCreatedBetweenAfter(LocalDateTime createdFrom, LocalDateTime createdTo, Long afterId, Limit limit);
+
+    @Query("SELECT d.brand AS brand, COUNT(d) AS count FROM Device d GROUP BY d.brand")
+    List<BrandCount> countDevicesByBrand();
+
+    @Query("SELECT d.brand AS brand, COUNT(d) AS count, MIN(d.creationTime) AS firstCreationTime, "
+            + "MAX(d.creationTime) AS lastCreationTime FROM Device d GROUP BY d.brand")
+    List<BrandTotals> findBrandTotals();
+
+    @Query("SELECT d.brand AS brand, COUNT(d) AS count, MIN(d.creationTime) AS firstCreationTime, "
+            + "MAX(d.creationTime) AS lastCreationTime FROM Device d WHERE d.brand IN :brands GROUP BY d.brand")
+    List<BrandTotals> findBrandTotalsByBrandIn(Collection<String> brands);
 }
@@ -0,0 +1,34 @@
+package com.challenge.burcakkocak.repo;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface DeviceRepoCustom {
+
+    // Must be consumed inside a transaction and closed by the caller
+    Stream<DeviceView> streamAllOrderById();
+
+    // The delete methods remove the rows and return their state in a single statement;
+    // an empty list means nothing matched. They must run inside a transaction
+
+    // expectedVersion null deletes whatever version is stored
+    List<DeviceView> deleteByIdReturning(Long id, Long expectedVersion);
+
+    List<DeviceView> deleteAllByIdReturning(Collection<Long> ids);
+
+    // Deletes at most max devices of the brand, lowest ids first, so a large brand is removed over several statements
+    List<DeviceView> deleteAllByBrandKeyReturning(String brandKey, int max);
+
+    // Applies the patch to every matching device and bumps its version in a single statement;
+    // returns the devices as they were before the update
+
+    List<DeviceView> patchAllByIdReturning(Collection<Long> ids, DevicePatch patch);
+
+    // Patches at most max devices of the brand with ids above afterId, lowest ids first
+    List<DeviceView> patchAllByBrandKeyReturning(String brandKey, Long afterId, int max, DevicePatch patch);
+
+    // Devices created in [createdFrom, createdTo) per hour or day, grouped in the database; empty buckets are omitted
+    List<CreatedCount> countCreatedPerBucket(TimeBucket bucket, LocalDateTime createdFrom, LocalDateTime createdTo);
+}
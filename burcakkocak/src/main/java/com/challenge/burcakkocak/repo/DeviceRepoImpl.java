@@ -0,0 +1,137 @@
+package com.challenge.burcakkocak.repo;
+
+import com.challenge.burcakkocak.config.DeviceProperties;
+import com.challenge.burcakkocak.entity.Device;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.AvailableHints;
+import org.hibernate.query.NativeQuery;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class DeviceRepoImpl implements DeviceRepoCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final DeviceProperties properties;
+
+    public DeviceRepoImpl(DeviceProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Stream<DeviceView> streamAllOrderById() {
+        // Rows are fetched from the cursor in fetch-size chunks; projected rows never enter
+        // the persistence context, so it does not grow with the table
+        return entityManager.createQuery(DeviceRepo.DEVICE_VIEW + "ORDER BY d.id", DeviceView.class)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, properties.getExport().getFetchSize())
+                .getResultStream();
+    }
+
+    @Override
+    public List<DeviceView> deleteByIdReturning(Long id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return deleteReturning("id = :id").setParameter("id", id).getResultList();
+        }
+        return deleteReturning("id = :id AND version = :version")
+                .setParameter("id", id)
+                .setParameter("version", expectedVersion)
+                .getResultList();
+    }
+
+    @Override
+    public List<DeviceView> deleteAllByIdReturning(Collection<Long> ids) {
+        return deleteReturning("id IN (:ids)").setParameterList("ids", ids).getResultList();
+    }
+
+    @Override
+    public List<DeviceView> deleteAllByBrandKeyReturning(String brandKey, int max) {
+        // The subquery reads the first ids from the (brand_key, id) index
+        return deleteReturning("brand_key = :brandKey AND id IN (SELECT id FROM device WHERE brand_key = :brandKey "
+                        + "ORDER BY id FETCH FIRST :max ROWS ONLY)")
+                .setParameter("brandKey", brandKey)
+                .setParameter("max", max)
+                .getResultList();
+    }
+
+    @Override
+    public List<DeviceView> patchAllByIdReturning(Collection<Long> ids, DevicePatch patch) {
+        return patchReturning("id IN (:ids)", patch).setParameterList("ids", ids).getResultList();
+    }
+
+    @Override
+    public List<DeviceView> patchAllByBrandKeyReturning(String brandKey, Long afterId, int max, DevicePatch patch) {
+        return patchReturning("brand_key = :filterBrandKey AND id IN (SELECT id FROM device WHERE brand_key = :filterBrandKey "
+                        + "AND id > :afterId ORDER BY id FETCH FIRST :max ROWS ONLY)", patch)
+                .setParameter("filterBrandKey", brandKey)
+                .setParameter("afterId", afterId)
+                .setParameter("max", max)
+                .getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<CreatedCount> countCreatedPerBucket(TimeBucket bucket, LocalDateTime createdFrom, LocalDateTime createdTo) {
+        // The unit is a keyword in H2's DATE_TRUNC, so it comes from the enum rather than a bind parameter
+        String truncated = "DATE_TRUNC(" + bucket.name() + ", creation_time)";
+        return entityManager.createNativeQuery("SELECT " + truncated + " AS bucket, COUNT(*) AS devices FROM device "
+                        + "WHERE creation_time >= :createdFrom AND creation_time < :createdTo "
+                        + "GROUP BY " + truncated + " ORDER BY bucket")
+                .unwrap(NativeQuery.class)
+                .addScalar("bucket", LocalDateTime.class)
+                .addScalar("devices", Long.class)
+                .setTupleTransformer((tuple, aliases) -> new CreatedCount((LocalDateTime) tuple[0], (Long) tuple[1]))
+                .setParameter("createdFrom", createdFrom)
+                .setParameter("createdTo", createdTo)
+                .getResultList();
+    }
+
+    // Only the patched columns are set; the version is bumped so If-Match and optimistic locking see the change
+    private NativeQuery<DeviceView> patchReturning(String condition, DevicePatch patch) {
+        StringBuilder assignments = new StringBuilder();
+        if (patch.name() != null) {
+            assignments.append("name = :name, ");
+        }
+        if (patch.brand() != null) {
+            assignments.append("brand = :brand, brand_key = :brandKey, ");
+        }
+        if (patch.creationTime() != null) {
+            assignments.append("creation_time = :creationTime, ");
+        }
+        NativeQuery<DeviceView> query = returning("UPDATE device SET " + assignments + "version = version + 1 WHERE " + condition);
+        if (patch.name() != null) {
+            query.setParameter("name", patch.name());
+        }
+        if (patch.brand() != null) {
+            query.setParameter("brand", patch.brand()).setParameter("brandKey", Device.toBrandKey(patch.brand()));
+        }
+        if (patch.creationTime() != null) {
+            query.setParameter("creationTime", patch.creationTime());
+        }
+        return query;
+    }
+
+    private NativeQuery<DeviceView> deleteReturning(String condition) {
+        return returning("DELETE FROM device WHERE " + condition);
+    }
+
+    // H2 data change delta table: the DELETE or UPDATE runs once and OLD TABLE yields the rows it touched as they were,
+    // so the caller gets both the affected-row count and the before-state for DeviceChangedEvent
+    @SuppressWarnings("unchecked")
+    private NativeQuery<DeviceView> returning(String statement) {
+        return entityManager.createNativeQuery(
+                        "SELECT id, name, brand, creation_time, version FROM OLD TABLE (" + statement + ")")
+                .unwrap(NativeQuery.class)
+                .addScalar("id", Long.class)
+                .addScalar("name", String.class)
+                .addScalar("brand", String.class)
+                .addScalar("creation_time", LocalDateTime.class)
+                .addScalar("version", Long.class)
+                .setTupleTransformer((tuple, aliases) -> new DeviceView(
+                        (Long) tuple[0], (String) tuple[1], (String) tuple[2], (LocalDateTime) tuple[3], (Long) tuple[4]));
+    }
+}
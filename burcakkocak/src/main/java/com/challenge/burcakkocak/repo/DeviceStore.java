@@ -0,0 +1,50 @@
+package com.challenge.burcakkocak.repo;
+
+import com.challenge.burcakkocak.entity.Device;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The device operations the services use. DeviceRepo implements them with JPA and H2,
+ * InMemoryDeviceRepo over the in-memory store (in-memory profile).
+ */
+public interface DeviceStore extends DeviceRepoCustom {
+
+    Optional<Device> findById(Long id);
+
+    boolean existsById(Long id);
+
+    long count();
+
+    // New devices get their id; devices read in the current transaction are written back
+    <S extends Device> S save(S device);
+
+    <S extends Device> List<S> saveAll(Iterable<S> devices);
+
+    // Writes the changes made to devices read in the current transaction
+    void flush();
+
+    Optional<DeviceView> findViewById(Long id);
+
+    // Keyset pages in id order, starting after the given id
+    List<DeviceView> findPageAfter(Long after, Limit limit);
+
+    List<Long> findIdsAfter(Long after, Limit limit);
+
+    List<DeviceView> findPageByBrandKeyAfter(String brandKey, Long after, Limit limit);
+
+    List<DeviceView> findPageByBrandKeyLikeAfter(String brandKeyPattern, Long after, Limit limit);
+
+    // Ordered by (creationTime, id), starting after (createdFrom, afterId)
+    List<DeviceView> findPageCreatedBetweenAfter(LocalDateTime createdFrom, LocalDateTime createdTo, Long afterId, Limit limit);
+
+    List<BrandCount> countDevicesByBrand();
+
+    List<BrandTotals> findBrandTotals();
+
+    List<BrandTotals> findBrandTotalsByBrandIn(Collection<String> brands);
+}
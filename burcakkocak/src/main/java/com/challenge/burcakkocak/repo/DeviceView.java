@@ -0,0 +1,12 @@
+package com.challenge.burcakkocak.repo;
+
+import com.challenge.burcakkocak.mapper.DeviceViewSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.time.LocalDateTime;
+
+// Read-only row for the query paths: built straight from the result set, never managed or dirty-checked.
+// Serialized like DeviceResponseDTO, so pages and exports return the rows as they are
+@JsonSerialize(using = DeviceViewSerializer.class)
+public record DeviceView(Long id, String name, String brand, LocalDateTime creationTime, Long version) {
+}
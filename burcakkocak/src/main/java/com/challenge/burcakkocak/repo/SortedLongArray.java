@@ -0,0 +1,68 @@
+package com.challenge.burcakkocak.repo;
+
+import java.util.Arrays;
+
+/**
+ * Distinct ids in ascending order, kept in a plain long[]. New ids are the largest so far, which makes add an append
+ * in the common case; remove shifts the tail. Not thread-safe: the in-memory brand index guards each array with its
+ * monitor, the text index all of its arrays with one read-write lock.
+ */
+public final class SortedLongArray {
+
+    private long[] ids;
+    private int size;
+
+    public SortedLongArray(int initialCapacity) {
+        this.ids = new long[Math.max(initialCapacity, 1)];
+    }
+
+    public void add(long id) {
+        if (size == 0 || id > ids[size - 1]) {
+            grow();
+            ids[size++] = id;
+            return;
+        }
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            return;
+        }
+        int insertion = -index - 1;
+        grow();
+        System.arraycopy(ids, insertion, ids, insertion + 1, size - insertion);
+        ids[insertion] = id;
+        size++;
+    }
+
+    public void remove(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long get(int index) {
+        return ids[index];
+    }
+
+    // Up to max ids greater than after, in ascending order
+    public long[] after(long after, int max) {
+        int index = Arrays.binarySearch(ids, 0, size, after);
+        int from = index >= 0 ? index + 1 : -index - 1;
+        return Arrays.copyOfRange(ids, from, from + Math.min(max, size - from));
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    private void grow() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+    }
+}
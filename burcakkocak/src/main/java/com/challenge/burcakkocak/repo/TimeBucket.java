@@ -0,0 +1,6 @@
+package com.challenge.burcakkocak.repo;
+
+// Width of the buckets of GET /device/stats/created
+public enum TimeBucket {
+    HOUR, DAY
+}
@@ -0,0 +1,200 @@
+package com.challenge.burcakkocak.repo.memory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of row changes in memory-mapped segment files named changes-&lt;generation&gt;.log.
+ * Every record carries the full new state of a row (or its deletion), so replaying a segment over a snapshot taken
+ * while it was written still ends in the latest state. Writes land in the page cache and survive a process crash;
+ * segments are forced to disk when they are rolled and when the log is closed.
+ */
+final class ChangeLog implements Closeable {
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final String PREFIX = "changes-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final CRC32 crc = new CRC32();
+    private long generation;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    ChangeLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    // Starts writing to a new segment of the given generation
+    synchronized void open(long generation) {
+        this.generation = generation;
+        Path file = segment(directory, generation);
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open change log " + file, e);
+        }
+    }
+
+    synchronized void appendPut(DeviceRow row) {
+        byte[] name = bytes(row.name());
+        byte[] brand = bytes(row.brand());
+        ByteBuffer record = reserve(1 + 8 + 8 + 8 + 4 + name.length + 4 + brand.length);
+        record.put(PUT).putLong(row.id()).putLong(row.version()).putLong(row.creationMicros());
+        record.putInt(name.length).put(name).putInt(brand.length).put(brand);
+        commit(record);
+    }
+
+    synchronized void appendDelete(long id) {
+        ByteBuffer record = reserve(1 + 8);
+        record.put(DELETE).putLong(id);
+        commit(record);
+    }
+
+    // Moves on to the next generation and returns it; records appended afterwards go to the new segment
+    synchronized long roll() {
+        closeSegment();
+        open(generation + 1);
+        return generation;
+    }
+
+    @Override
+    public synchronized void close() {
+        closeSegment();
+    }
+
+    // Replays the segments from the given generation onwards in order and returns the last generation found,
+    // or fromGeneration - 1 when there is none. A torn record at the end of a segment ends its replay
+    static long replay(Path directory, long fromGeneration, Consumer<DeviceRow> onPut, LongConsumer onDelete) {
+        long last = fromGeneration - 1;
+        for (long generation : generations(directory)) {
+            if (generation < fromGeneration) {
+                continue;
+            }
+            last = generation;
+            try (FileChannel channel = FileChannel.open(segment(directory, generation), StandardOpenOption.READ)) {
+                replay(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), onPut, onDelete);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read change log generation " + generation, e);
+            }
+        }
+        return last;
+    }
+
+    static List<Long> generations(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list " + directory, e);
+        }
+    }
+
+    // Segments older than the given generation are covered by a snapshot
+    static void deleteBefore(Path directory, long generation) throws IOException {
+        for (long older : generations(directory)) {
+            if (older < generation) {
+                Files.deleteIfExists(segment(directory, older));
+            }
+        }
+    }
+
+    private static void replay(ByteBuffer segment, Consumer<DeviceRow> onPut, LongConsumer onDelete) {
+        CRC32 crc = new CRC32();
+        while (segment.remaining() >= 4) {
+            int length = segment.getInt();
+            if (length <= 0 || length + 4 > segment.remaining()) {
+                return;
+            }
+            ByteBuffer record = segment.slice(segment.position(), length);
+            crc.reset();
+            crc.update(record.duplicate());
+            segment.position(segment.position() + length);
+            if ((int) crc.getValue() != segment.getInt()) {
+                return;
+            }
+            byte type = record.get();
+            if (type == PUT) {
+                long id = record.getLong();
+                long version = record.getLong();
+                long creationMicros = record.getLong();
+                onPut.accept(new DeviceRow(id, string(record), string(record), creationMicros, version));
+            } else if (type == DELETE) {
+                onDelete.accept(record.getLong());
+            } else {
+                return;
+            }
+        }
+    }
+
+    // Record layout: int length, payload, int CRC32 of the payload. The length is written last, so a record
+    // cut short by a crash reads as the end of the segment
+    private ByteBuffer reserve(int length) {
+        if (length + 8 > segmentSize) {
+            throw new IllegalArgumentException("Change record of " + length + " bytes does not fit a log segment");
+        }
+        if (buffer.remaining() < length + 8) {
+            roll();
+        }
+        return buffer.slice(buffer.position() + 4, length);
+    }
+
+    private void commit(ByteBuffer record) {
+        int length = record.position();
+        crc.reset();
+        crc.update(record.flip());
+        int start = buffer.position();
+        buffer.putInt(start + 4 + length, (int) crc.getValue());
+        buffer.putInt(start, length);
+        buffer.position(start + 8 + length);
+    }
+
+    private void closeSegment() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close change log generation " + generation, e);
+        } finally {
+            channel = null;
+            buffer = null;
+        }
+    }
+
+    private static Path segment(Path directory, long generation) {
+        return directory.resolve(PREFIX + generation + SUFFIX);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer record) {
+        byte[] value = new byte[record.getInt()];
+        record.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,49 @@
+package com.challenge.burcakkocak.repo.memory;
+
+import com.challenge.burcakkocak.entity.Device;
+import com.challenge.burcakkocak.repo.DeviceView;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Objects;
+
+// One device as the in-memory store keeps it: immutable, creationTime as epoch microseconds and no boxed fields,
+// so a row is a single small object next to its name; brand strings are shared between the devices of a brand
+record DeviceRow(long id, String name, String brand, long creationMicros, long version) {
+
+    // Stands for a null creationTime
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    static DeviceRow of(Device device, long id, long version) {
+        return new DeviceRow(id, device.getName(), device.getBrand(), toMicros(device.getCreationTime()), version);
+    }
+
+    LocalDateTime creationTime() {
+        return toTime(creationMicros);
+    }
+
+    DeviceView toView() {
+        return new DeviceView(id, name, brand, creationTime(), version);
+    }
+
+    Device toEntity() {
+        Device device = new Device(id, name, brand, creationTime());
+        device.setVersion(version);
+        return device;
+    }
+
+    // Whether the entity carries the same state, i.e. writing it back would change nothing
+    boolean sameState(Device device) {
+        return Objects.equals(name, device.getName()) && Objects.equals(brand, device.getBrand())
+                && creationMicros == toMicros(device.getCreationTime());
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return time == null ? NO_TIME : time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime toTime(long micros) {
+        return micros == NO_TIME ? null
+                : LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,212 @@
+package com.challenge.burcakkocak.repo.memory;
+
+import com.challenge.burcakkocak.entity.Device;
+
+import java.util.Arrays;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Devices keyed by their primitive long id, with secondary indexes from the lower-cased brand to the ids and on
+ * (creationTime, id), the order of range pages.
+ * Ids are handed out by the table in ascending order, so rows live in a paged array indexed by id: a lookup is two
+ * array reads without hashing or boxing, and scanning the pages yields id order for keyset pages.
+ * Reads are lock-free; writers hold the lock of the id's stripe, so a row and its index entries change together.
+ */
+final class DeviceTable {
+
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final int STRIPES = 64;
+
+    private volatile AtomicReferenceArray<DeviceRow>[] pages = newDirectory(16);
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final ConcurrentSkipListMap<String, LongSortedSet> brandIndex = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListSet<TimeKey> timeIndex = new ConcurrentSkipListSet<>();
+    // One String instance per distinct brand, shared by its rows
+    private final ConcurrentHashMap<String, String> brands = new ConcurrentHashMap<>();
+    private final LongAdder size = new LongAdder();
+    private final AtomicLong lastId = new AtomicLong();
+
+    // Entry of the creationTime index; a row without creationTime is keyed by DeviceRow.NO_TIME and sorts first
+    record TimeKey(long creationMicros, long id) implements Comparable<TimeKey> {
+
+        static TimeKey of(DeviceRow row) {
+            return new TimeKey(row.creationMicros(), row.id());
+        }
+
+        @Override
+        public int compareTo(TimeKey other) {
+            int byTime = Long.compare(creationMicros, other.creationMicros);
+            return byTime != 0 ? byTime : Long.compare(id, other.id);
+        }
+    }
+
+    DeviceTable() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    DeviceRow get(long id) {
+        AtomicReferenceArray<DeviceRow>[] directory = pages;
+        int page = (int) (id >>> PAGE_BITS);
+        if (id < 0 || page >= directory.length || directory[page] == null) {
+            return null;
+        }
+        return directory[page].get((int) (id & PAGE_MASK));
+    }
+
+    // Lock guarding the writes to this id
+    ReentrantLock lock(long id) {
+        return locks[(int) (id & (STRIPES - 1))];
+    }
+
+    long nextId() {
+        return lastId.incrementAndGet();
+    }
+
+    long lastId() {
+        return lastId.get();
+    }
+
+    // Keeps ids handed out later above an id restored from disk
+    void seenId(long id) {
+        lastId.accumulateAndGet(id, Math::max);
+    }
+
+    long size() {
+        return size.sum();
+    }
+
+    // Caller holds lock(row.id()); replaces the current row of that id, if any
+    void put(DeviceRow row) {
+        DeviceRow stored = new DeviceRow(row.id(), row.name(), canonicalBrand(row.brand()), row.creationMicros(), row.version());
+        DeviceRow previous = page(row.id(), true).getAndSet((int) (row.id() & PAGE_MASK), stored);
+        if (previous == null) {
+            size.increment();
+        } else {
+            if (!previous.brand().equals(stored.brand())) {
+                unindex(previous);
+            }
+            if (previous.creationMicros() != stored.creationMicros()) {
+                timeIndex.remove(TimeKey.of(previous));
+            }
+        }
+        seenId(row.id());
+        index(stored);
+        timeIndex.add(TimeKey.of(stored));
+    }
+
+    // Caller holds lock(id); returns the removed row or null
+    DeviceRow remove(long id) {
+        AtomicReferenceArray<DeviceRow> page = page(id, false);
+        DeviceRow previous = page == null ? null : page.getAndSet((int) (id & PAGE_MASK), null);
+        if (previous != null) {
+            size.decrement();
+            unindex(previous);
+            timeIndex.remove(TimeKey.of(previous));
+        }
+        return previous;
+    }
+
+    // First row with an id greater than afterId, or null past the last row
+    DeviceRow next(long afterId) {
+        AtomicReferenceArray<DeviceRow>[] directory = pages;
+        long last = lastId.get();
+        for (long id = Math.max(afterId, 0) + 1; id <= last; ) {
+            int pageIndex = (int) (id >>> PAGE_BITS);
+            if (pageIndex >= directory.length) {
+                return null;
+            }
+            AtomicReferenceArray<DeviceRow> page = directory[pageIndex];
+            if (page == null) {
+                id = (long) (pageIndex + 1) << PAGE_BITS;
+                continue;
+            }
+            for (int slot = (int) (id & PAGE_MASK); slot < PAGE_SIZE; slot++) {
+                DeviceRow row = page.get(slot);
+                if (row != null) {
+                    return row;
+                }
+            }
+            id = (long) (pageIndex + 1) << PAGE_BITS;
+        }
+        return null;
+    }
+
+    LongSortedSet idsOfBrandKey(String brandKey) {
+        return brandIndex.get(brandKey);
+    }
+
+    // Brand keys from the given one onwards, in order
+    NavigableMap<String, LongSortedSet> brandKeysFrom(String brandKey) {
+        return brandIndex.tailMap(brandKey, true);
+    }
+
+    // Index entries after (creationMicros, id), in order. A row updated concurrently can be keyed by its old
+    // creationTime for a moment, so callers compare the key with the row they read
+    NavigableSet<TimeKey> timeKeysAfter(long creationMicros, long id) {
+        return timeIndex.tailSet(new TimeKey(creationMicros, id), false);
+    }
+
+    private void index(DeviceRow row) {
+        String brandKey = Device.toBrandKey(row.brand());
+        LongSortedSet ids;
+        while (!(ids = brandIndex.computeIfAbsent(brandKey, key -> new LongSortedSet())).add(row.id())) {
+            // The set was retired by the removal of the brand's last id, which may not have dropped it yet
+            brandIndex.remove(brandKey, ids);
+        }
+    }
+
+    // Drops the brand's entry with its last id, so deleted and renamed brands leave no keys behind
+    private void unindex(DeviceRow row) {
+        String brandKey = Device.toBrandKey(row.brand());
+        LongSortedSet ids = brandIndex.get(brandKey);
+        if (ids != null && ids.remove(row.id())) {
+            brandIndex.remove(brandKey, ids);
+        }
+    }
+
+    private String canonicalBrand(String brand) {
+        return brand == null ? null : brands.computeIfAbsent(brand, key -> key);
+    }
+
+    private AtomicReferenceArray<DeviceRow> page(long id, boolean create) {
+        int index = (int) (id >>> PAGE_BITS);
+        AtomicReferenceArray<DeviceRow>[] directory = pages;
+        if (index < directory.length && directory[index] != null) {
+            return directory[index];
+        }
+        if (!create) {
+            return null;
+        }
+        synchronized (this) {
+            directory = pages;
+            if (index >= directory.length) {
+                directory = Arrays.copyOf(directory, Math.max(directory.length * 2, index + 1));
+            } else if (directory[index] != null) {
+                return directory[index];
+            } else {
+                directory = directory.clone();
+            }
+            // A new directory is published for every new page, so lock-free readers always see a complete array
+            directory[index] = new AtomicReferenceArray<>(PAGE_SIZE);
+            pages = directory;
+            return directory[index];
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AtomicReferenceArray<DeviceRow>[] newDirectory(int length) {
+        return new AtomicReferenceArray[length];
+    }
+}
@@ -0,0 +1,475 @@
+package com.challenge.burcakkocak.repo.memory;
+
+import com.challenge.burcakkocak.entity.Device;
+import com.challenge.burcakkocak.repo.BrandCount;
+import com.challenge.burcakkocak.repo.BrandTotals;
+import com.challenge.burcakkocak.repo.CreatedCount;
+import com.challenge.burcakkocak.repo.DevicePatch;
+import com.challenge.burcakkocak.repo.DeviceStore;
+import com.challenge.burcakkocak.repo.DeviceView;
+import com.challenge.burcakkocak.repo.TimeBucket;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * DeviceStore over {@link InMemoryDeviceStore}, for running without JPA and H2 (in-memory profile).
+ * Entities returned by findById and save behave like managed ones: changes made to them inside a transaction are
+ * written back on flush() or at commit, with the version checked and bumped. Every write applies to the store
+ * immediately and is not undone by a rollback; each DeviceService operation is a single write, so this matches
+ * what the database does for them.
+ */
+public class InMemoryDeviceRepo implements DeviceStore {
+
+    private static final long MICROS_PER_HOUR = 3_600_000_000L;
+    private static final long MICROS_PER_DAY = 24 * MICROS_PER_HOUR;
+
+    private final InMemoryDeviceStore store;
+
+    public InMemoryDeviceRepo(InMemoryDeviceStore store) {
+        this.store = store;
+    }
+
+    // Brand, count and creationTime range of one brand, for the aggregate queries
+    private static final class BrandTotalsRow implements BrandTotals, BrandCount {
+        private final String brand;
+        private long count;
+        private long first = Long.MAX_VALUE;
+        private long last = Long.MIN_VALUE;
+
+        BrandTotalsRow(String brand) {
+            this.brand = brand;
+        }
+
+        // Like MIN and MAX, the range leaves out rows without creationTime
+        void add(DeviceRow row) {
+            count++;
+            if (row.creationMicros() != DeviceRow.NO_TIME) {
+                first = Math.min(first, row.creationMicros());
+                last = Math.max(last, row.creationMicros());
+            }
+        }
+
+        @Override
+        public String getBrand() {
+            return brand;
+        }
+
+        @Override
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public LocalDateTime getFirstCreationTime() {
+            return first == Long.MAX_VALUE ? null : DeviceRow.toTime(first);
+        }
+
+        @Override
+        public LocalDateTime getLastCreationTime() {
+            return DeviceRow.toTime(last);
+        }
+    }
+
+    // Reads
+
+    @Override
+    public Optional<Device> findById(Long id) {
+        DeviceRow row = store.get(id);
+        return row == null ? Optional.empty() : Optional.of(manage(row.toEntity()));
+    }
+
+    @Override
+    public Optional<DeviceView> findViewById(Long id) {
+        DeviceRow row = store.get(id);
+        return row == null ? Optional.empty() : Optional.of(row.toView());
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return store.get(id) != null;
+    }
+
+    @Override
+    public long count() {
+        return store.count();
+    }
+
+    @Override
+    public List<DeviceView> findPageAfter(Long after, Limit limit) {
+        int max = max(limit);
+        List<DeviceView> page = new ArrayList<>(Math.min(max, 1024));
+        for (DeviceRow row = store.next(after); row != null && page.size() < max; row = store.next(row.id())) {
+            page.add(row.toView());
+        }
+        return page;
+    }
+
+    @Override
+    public List<Long> findIdsAfter(Long after, Limit limit) {
+        int max = max(limit);
+        List<Long> ids = new ArrayList<>(Math.min(max, 1024));
+        for (DeviceRow row = store.next(after); row != null && ids.size() < max; row = store.next(row.id())) {
+            ids.add(row.id());
+        }
+        return ids;
+    }
+
+    @Override
+    public List<DeviceView> findPageByBrandKeyAfter(String brandKey, Long after, Limit limit) {
+        LongSortedSet ids = store.idsOfBrandKey(brandKey);
+        return ids == null ? List.of() : views(ids.after(after, max(limit)));
+    }
+
+    // Supports the LIKE syntax the service sends (escaped literal, % and _ wildcards); only brand keys starting
+    // with the literal prefix of the pattern are looked at
+    @Override
+    public List<DeviceView> findPageByBrandKeyLikeAfter(String brandKeyPattern, Long after, Limit limit) {
+        StringBuilder prefix = new StringBuilder();
+        Pattern pattern = likeToRegex(brandKeyPattern, prefix);
+        int max = max(limit);
+        long[] ids = new long[0];
+        for (Map.Entry<String, LongSortedSet> entry : store.brandKeysFrom(prefix.toString()).entrySet()) {
+            if (!entry.getKey().startsWith(prefix.toString())) {
+                break;
+            }
+            if (pattern.matcher(entry.getKey()).matches()) {
+                long[] brandIds = entry.getValue().after(after, max);
+                long[] merged = Arrays.copyOf(ids, ids.length + brandIds.length);
+                System.arraycopy(brandIds, 0, merged, ids.length, brandIds.length);
+                Arrays.sort(merged);
+                ids = Arrays.copyOf(merged, Math.min(max, merged.length));
+            }
+        }
+        return views(ids);
+    }
+
+    // Seeks into the (creationTime, id) index past the cursor and reads rows until the page is full or createdTo is reached
+    @Override
+    public List<DeviceView> findPageCreatedBetweenAfter(LocalDateTime createdFrom, LocalDateTime createdTo, Long afterId, Limit limit) {
+        long to = DeviceRow.toMicros(createdTo);
+        int max = max(limit);
+        List<DeviceView> page = new ArrayList<>(Math.min(max, 1024));
+        for (DeviceTable.TimeKey key : store.timeKeysAfter(DeviceRow.toMicros(createdFrom), afterId)) {
+            if (key.creationMicros() >= to || page.size() == max) {
+                break;
+            }
+            DeviceRow row = store.get(key.id());
+            if (row != null && row.creationMicros() == key.creationMicros()) {
+                page.add(row.toView());
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public List<CreatedCount> countCreatedPerBucket(TimeBucket bucket, LocalDateTime createdFrom, LocalDateTime createdTo) {
+        long width = bucket == TimeBucket.HOUR ? MICROS_PER_HOUR : MICROS_PER_DAY;
+        long from = DeviceRow.toMicros(createdFrom);
+        long to = DeviceRow.toMicros(createdTo);
+        // Only the index range from createdFrom to createdTo is read
+        TreeMap<Long, long[]> counts = new TreeMap<>();
+        for (DeviceTable.TimeKey key : store.timeKeysAfter(from, Long.MIN_VALUE)) {
+            long time = key.creationMicros();
+            if (time >= to) {
+                break;
+            }
+            counts.computeIfAbsent(Math.floorDiv(time, width) * width, start -> new long[1])[0]++;
+        }
+        List<CreatedCount> result = new ArrayList<>(counts.size());
+        counts.forEach((start, count) -> result.add(new CreatedCount(DeviceRow.toTime(start), count[0])));
+        return result;
+    }
+
+    @Override
+    public List<BrandCount> countDevicesByBrand() {
+        return new ArrayList<>(brandTotals(null));
+    }
+
+    @Override
+    public List<BrandTotals> findBrandTotals() {
+        return new ArrayList<>(brandTotals(null));
+    }
+
+    @Override
+    public List<BrandTotals> findBrandTotalsByBrandIn(Collection<String> brands) {
+        return new ArrayList<>(brandTotals(new HashSet<>(brands)));
+    }
+
+    @Override
+    public Stream<DeviceView> streamAllOrderById() {
+        Iterator<DeviceView> rows = new Iterator<>() {
+            private DeviceRow next = store.next(0);
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public DeviceView next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                DeviceRow row = next;
+                next = store.next(row.id());
+                return row.toView();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    // Writes
+
+    // New entities (no version yet) get the next id; others are written back like a merge followed by flush
+    @Override
+    public <S extends Device> S save(S device) {
+        if (device.getVersion() == null) {
+            long id = store.nextId();
+            store.compute(id, current -> DeviceRow.of(device, id, 0L));
+            device.setId(id);
+            device.setVersion(0L);
+        } else {
+            writeBack(device);
+        }
+        return manage(device);
+    }
+
+    @Override
+    public <S extends Device> List<S> saveAll(Iterable<S> devices) {
+        List<S> saved = new ArrayList<>();
+        for (S device : devices) {
+            saved.add(save(device));
+        }
+        return saved;
+    }
+
+    // Writes back the changed entities returned in the current transaction
+    @Override
+    public void flush() {
+        Set<Device> managed = managed();
+        if (managed != null) {
+            for (Device device : managed) {
+                writeBack(device);
+            }
+        }
+    }
+
+    @Override
+    public List<DeviceView> deleteByIdReturning(Long id, Long expectedVersion) {
+        DeviceRow before = store.compute(id, current ->
+                current != null && (expectedVersion == null || current.version() == expectedVersion) ? null : current);
+        return before != null && (expectedVersion == null || before.version() == expectedVersion)
+                ? List.of(before.toView()) : List.of();
+    }
+
+    @Override
+    public List<DeviceView> deleteAllByIdReturning(Collection<Long> ids) {
+        List<DeviceView> deleted = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            DeviceRow before = store.compute(id, current -> null);
+            if (before != null) {
+                deleted.add(before.toView());
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public List<DeviceView> deleteAllByBrandKeyReturning(String brandKey, int max) {
+        LongSortedSet ids = store.idsOfBrandKey(brandKey);
+        List<DeviceView> deleted = new ArrayList<>();
+        for (long id : ids == null ? new long[0] : ids.after(0L, max)) {
+            // The brand may have changed since the ids were read
+            DeviceRow before = store.compute(id, current -> hasBrandKey(current, brandKey) ? null : current);
+            if (hasBrandKey(before, brandKey)) {
+                deleted.add(before.toView());
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public List<DeviceView> patchAllByIdReturning(Collection<Long> ids, DevicePatch patch) {
+        List<DeviceView> patched = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            DeviceRow before = store.compute(id, current -> current == null ? null : apply(current, patch));
+            if (before != null) {
+                patched.add(before.toView());
+            }
+        }
+        return patched;
+    }
+
+    @Override
+    public List<DeviceView> patchAllByBrandKeyReturning(String brandKey, Long afterId, int max, DevicePatch patch) {
+        LongSortedSet ids = store.idsOfBrandKey(brandKey);
+        List<DeviceView> patched = new ArrayList<>();
+        for (long id : ids == null ? new long[0] : ids.after(afterId, max)) {
+            DeviceRow before = store.compute(id, current -> hasBrandKey(current, brandKey) ? apply(current, patch) : current);
+            if (hasBrandKey(before, brandKey)) {
+                patched.add(before.toView());
+            }
+        }
+        return patched;
+    }
+
+    // Writes the entity's state if it differs from the stored row; the stored version must still be the entity's
+    private void writeBack(Device device) {
+        DeviceRow stored = store.get(device.getId());
+        if (stored != null && stored.version() == device.getVersion() && stored.sameState(device)) {
+            return;
+        }
+        DeviceRow before = store.compute(device.getId(), current -> {
+            if (current == null || current.version() != device.getVersion()) {
+                throw new ObjectOptimisticLockingFailureException(Device.class, device.getId());
+            }
+            return current.sameState(device) ? current : DeviceRow.of(device, current.id(), current.version() + 1);
+        });
+        if (!before.sameState(device)) {
+            device.setVersion(before.version() + 1);
+        }
+    }
+
+    // Remembers the entity for flush() and the commit of the current transaction, if there is one
+    private <S extends Device> S manage(S device) {
+        Set<Device> managed = managed();
+        if (managed != null) {
+            managed.add(device);
+        }
+        return device;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Device> managed() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Set<Device> managed = (Set<Device>) TransactionSynchronizationManager.getResource(this);
+        if (managed == null) {
+            // Entities are told apart by identity, like in a persistence context
+            Set<Device> devices = Collections.newSetFromMap(new IdentityHashMap<>());
+            TransactionSynchronizationManager.bindResource(this, devices);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    if (!readOnly) {
+                        flush();
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InMemoryDeviceRepo.this);
+                }
+            });
+            managed = devices;
+        }
+        return managed;
+    }
+
+    // All brands when brands is null; otherwise only the index entries of the given brands are read
+    private List<BrandTotalsRow> brandTotals(Set<String> brands) {
+        Map<String, BrandTotalsRow> totals = new HashMap<>();
+        if (brands == null) {
+            for (LongSortedSet ids : store.brandKeysFrom("").values()) {
+                addBrandTotals(ids, null, totals);
+            }
+        } else {
+            Set<String> brandKeys = new HashSet<>();
+            for (String brand : brands) {
+                String brandKey = Device.toBrandKey(brand);
+                if (brandKeys.add(brandKey)) {
+                    addBrandTotals(store.idsOfBrandKey(brandKey), brands, totals);
+                }
+            }
+        }
+        return new ArrayList<>(totals.values());
+    }
+
+    private void addBrandTotals(LongSortedSet ids, Set<String> brands, Map<String, BrandTotalsRow> totals) {
+        if (ids == null) {
+            return;
+        }
+        for (long id : ids.toArray()) {
+            DeviceRow row = store.get(id);
+            if (row != null && (brands == null || brands.contains(row.brand()))) {
+                totals.computeIfAbsent(row.brand(), BrandTotalsRow::new).add(row);
+            }
+        }
+    }
+
+    private List<DeviceView> views(long[] ids) {
+        List<DeviceView> views = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            DeviceRow row = store.get(id);
+            if (row != null) {
+                views.add(row.toView());
+            }
+        }
+        return views;
+    }
+
+    private static DeviceRow apply(DeviceRow row, DevicePatch patch) {
+        return new DeviceRow(row.id(),
+                patch.name() != null ? patch.name() : row.name(),
+                patch.brand() != null ? patch.brand() : row.brand(),
+                patch.creationTime() != null ? DeviceRow.toMicros(patch.creationTime()) : row.creationMicros(),
+                row.version() + 1);
+    }
+
+    private static boolean hasBrandKey(DeviceRow row, String brandKey) {
+        return row != null && brandKey.equals(Device.toBrandKey(row.brand()));
+    }
+
+    private static int max(Limit limit) {
+        return limit.isLimited() ? limit.max() : Integer.MAX_VALUE;
+    }
+
+    // Translates a LIKE pattern with backslash escapes to a regex and collects its literal prefix
+    private static Pattern likeToRegex(String like, StringBuilder prefix) {
+        StringBuilder regex = new StringBuilder();
+        boolean literalPrefix = true;
+        for (int i = 0; i < like.length(); i++) {
+            char c = like.charAt(i);
+            if (c == '\\' && i + 1 < like.length()) {
+                char escaped = like.charAt(++i);
+                regex.append(Pattern.quote(String.valueOf(escaped)));
+                if (literalPrefix) {
+                    prefix.append(escaped);
+                }
+            } else if (c == '%' || c == '_') {
+                regex.append(c == '%' ? ".*" : ".");
+                literalPrefix = false;
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+                if (literalPrefix) {
+                    prefix.append(c);
+                }
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+}
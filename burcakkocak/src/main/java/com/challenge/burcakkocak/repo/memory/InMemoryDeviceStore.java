@@ -0,0 +1,142 @@
+package com.challenge.burcakkocak.repo.memory;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Device storage of the in-memory profile: a {@link DeviceTable} made durable by periodic snapshots plus a
+ * memory-mapped {@link ChangeLog} of the changes since. On open, the latest snapshot is loaded and the log replayed
+ * over it. Without a data directory nothing is written and the data lives as long as the process.
+ */
+public class InMemoryDeviceStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryDeviceStore.class);
+
+    private final DeviceTable table = new DeviceTable();
+    private final Path directory;
+    private final int logSegmentSize;
+    private volatile ChangeLog log;
+
+    public InMemoryDeviceStore(Path directory, int logSegmentSize) {
+        this.directory = directory;
+        this.logSegmentSize = logSegmentSize;
+    }
+
+    public void open() throws IOException {
+        if (directory == null) {
+            logger.info("In-memory device store started without persistence");
+            return;
+        }
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        SnapshotFile.Header header = SnapshotFile.read(directory, table::put);
+        long replayFrom = header == null ? 0 : header.replayFrom();
+        if (header != null) {
+            table.seenId(header.lastId());
+        }
+        long lastGeneration = ChangeLog.replay(directory, replayFrom, table::put, table::remove);
+        log = new ChangeLog(directory, logSegmentSize);
+        log.open(Math.max(lastGeneration, replayFrom) + 1);
+        logger.info("Recovered {} devices from {} in {} ms", table.size(), directory,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    // Writes a new snapshot and drops the log segments it covers; runs concurrently with writes
+    @Scheduled(fixedDelayString = "${device.memory.snapshot-interval:PT1M}",
+            initialDelayString = "${device.memory.snapshot-interval:PT1M}")
+    public synchronized void snapshot() {
+        if (log == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        // Every change from here on goes to the new segment, which is replayed over this snapshot
+        long replayFrom = log.roll();
+        try {
+            SnapshotFile.write(directory, new SnapshotFile.Header(replayFrom, table.lastId()), table);
+            ChangeLog.deleteBefore(directory, replayFrom);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write snapshot to " + directory, e);
+        }
+        logger.debug("Wrote snapshot of {} devices in {} ms", table.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    // A snapshot on the way out keeps the next startup from replaying the log
+    public synchronized void close() {
+        if (log == null) {
+            return;
+        }
+        snapshot();
+        log.close();
+        log = null;
+    }
+
+    DeviceRow get(long id) {
+        return table.get(id);
+    }
+
+    long nextId() {
+        return table.nextId();
+    }
+
+    long count() {
+        return table.size();
+    }
+
+    DeviceRow next(long afterId) {
+        return table.next(afterId);
+    }
+
+    LongSortedSet idsOfBrandKey(String brandKey) {
+        return table.idsOfBrandKey(brandKey);
+    }
+
+    NavigableMap<String, LongSortedSet> brandKeysFrom(String brandKey) {
+        return table.brandKeysFrom(brandKey);
+    }
+
+    NavigableSet<DeviceTable.TimeKey> timeKeysAfter(long creationMicros, long id) {
+        return table.timeKeysAfter(creationMicros, id);
+    }
+
+    // Applies a change to one row under the lock of its id and logs it. The function gets the current row (null if
+    // there is none) and returns the new row, null to delete it, or the same row to leave it alone.
+    // Returns the row as it was before
+    DeviceRow compute(long id, UnaryOperator<DeviceRow> change) {
+        ReentrantLock lock = table.lock(id);
+        lock.lock();
+        try {
+            DeviceRow current = table.get(id);
+            DeviceRow next = change.apply(current);
+            if (next == current) {
+                return current;
+            }
+            ChangeLog changes = log;
+            if (next == null) {
+                table.remove(id);
+                if (changes != null) {
+                    changes.appendDelete(id);
+                }
+            } else {
+                table.put(next);
+                if (changes != null) {
+                    changes.appendPut(next);
+                }
+            }
+            return current;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
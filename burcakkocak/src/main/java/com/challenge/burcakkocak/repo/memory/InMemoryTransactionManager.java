@@ -0,0 +1,49 @@
+package com.challenge.burcakkocak.repo.memory;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transaction manager of the in-memory profile. There is no resource to commit or roll back: it only demarcates
+ * transactions, so @Transactional methods join each other and transaction synchronizations run, which is what
+ * InMemoryDeviceRepo's write-back on commit and the @TransactionalEventListener methods rely on.
+ */
+public class InMemoryTransactionManager extends AbstractPlatformTransactionManager {
+
+    private static final class Transaction {
+        boolean active;
+    }
+
+    @Override
+    protected Object doGetTransaction() {
+        Transaction transaction = (Transaction) TransactionSynchronizationManager.getResource(this);
+        return transaction != null ? transaction : new Transaction();
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((Transaction) transaction).active;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        ((Transaction) transaction).active = true;
+        TransactionSynchronizationManager.bindResource(this, transaction);
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(this);
+        ((Transaction) transaction).active = false;
+    }
+}
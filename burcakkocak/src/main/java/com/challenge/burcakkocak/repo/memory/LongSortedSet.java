@@ -0,0 +1,44 @@
+package com.challenge.burcakkocak.repo.memory;
+
+import com.challenge.burcakkocak.repo.SortedLongArray;
+
+// Ids of one brand in ascending order. Writers holding different stripe locks and lock-free readers share it,
+// so every access goes through its monitor; brands are small next to the table. Once its last id is removed the set
+// is retired and takes no more ids, so the brand index can drop it without losing an id added concurrently
+final class LongSortedSet {
+
+    private final SortedLongArray ids = new SortedLongArray(4);
+    private boolean retired;
+
+    // False when the set is retired; the caller then adds the id to a new set
+    synchronized boolean add(long id) {
+        if (retired) {
+            return false;
+        }
+        ids.add(id);
+        return true;
+    }
+
+    // True when this removed the last id and retired the set
+    synchronized boolean remove(long id) {
+        ids.remove(id);
+        if (ids.size() == 0 && !retired) {
+            retired = true;
+            return true;
+        }
+        return false;
+    }
+
+    synchronized int size() {
+        return ids.size();
+    }
+
+    // Up to max ids greater than after, in ascending order
+    synchronized long[] after(long after, int max) {
+        return ids.after(after, max);
+    }
+
+    synchronized long[] toArray() {
+        return ids.toArray();
+    }
+}
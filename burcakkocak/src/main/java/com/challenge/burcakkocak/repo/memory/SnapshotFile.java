@@ -0,0 +1,107 @@
+package com.challenge.burcakkocak.repo.memory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Full copy of the table in snapshot.bin: a header with the change log generation to replay from and the last id
+ * handed out, the rows, and a CRC32 of everything before it. Written to a temporary file and moved into place,
+ * so a crash while writing leaves the previous snapshot intact.
+ */
+final class SnapshotFile {
+
+    private static final int MAGIC = 0x44455631; // "DEV1"
+    private static final String NAME = "snapshot.bin";
+
+    // What a snapshot holds besides the rows
+    record Header(long replayFrom, long lastId) {
+    }
+
+    private SnapshotFile() {
+    }
+
+    static void write(Path directory, Header header, DeviceTable table) throws IOException {
+        Path temporary = directory.resolve(NAME + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream buffered = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+            CheckedOutputStream checked = new CheckedOutputStream(buffered, new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeLong(header.replayFrom());
+            out.writeLong(header.lastId());
+            for (DeviceRow row = table.next(0); row != null; row = table.next(row.id())) {
+                out.writeBoolean(true);
+                out.writeLong(row.id());
+                out.writeLong(row.version());
+                out.writeLong(row.creationMicros());
+                writeString(out, row.name());
+                writeString(out, row.brand());
+            }
+            out.writeBoolean(false);
+            out.flush();
+            new DataOutputStream(buffered).writeLong(checked.getChecksum().getValue());
+            buffered.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(NAME), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Returns null when there is no snapshot yet
+    static Header read(Path directory, Consumer<DeviceRow> onRow) throws IOException {
+        Path file = directory.resolve(NAME);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (InputStream buffered = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            CheckedInputStream checked = new CheckedInputStream(buffered, new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a device snapshot");
+            }
+            Header header = new Header(in.readLong(), in.readLong());
+            while (in.readBoolean()) {
+                long id = in.readLong();
+                long version = in.readLong();
+                long creationMicros = in.readLong();
+                onRow.accept(new DeviceRow(id, readString(in), readString(in), creationMicros, version));
+            }
+            long checksum = checked.getChecksum().getValue();
+            if (new DataInputStream(buffered).readLong() != checksum) {
+                throw new IOException(file + " is corrupted, checksum mismatch");
+            }
+            return header;
+        } catch (EOFException e) {
+            throw new IOException(file + " is truncated", e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
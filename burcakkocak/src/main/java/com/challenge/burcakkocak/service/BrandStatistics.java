@@ -0,0 +1,203 @@
+package com.challenge.burcakkocak.service;
+
+import com.challenge.burcakkocak.entity.dto.BrandStatsDTO;
+import com.challenge.burcakkocak.event.DeviceChangedEvent;
+import com.challenge.burcakkocak.event.DeviceSnapshot;
+import com.challenge.burcakkocak.mapper.TimestampCodec;
+import com.challenge.burcakkocak.repo.BrandTotals;
+import com.challenge.burcakkocak.repo.DeviceStore;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Device count and creationTime range per brand, kept in memory for GET /device/stats/brands.
+ * Seeded with one GROUP BY at startup, updated from committed device changes and reconciled with the table periodically.
+ * Devices without a creationTime are counted but left out of the range, as MIN and MAX leave out nulls.
+ */
+@Component
+public class BrandStatistics implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(BrandStatistics.class);
+
+    // Counters of one brand; creation times are kept as epoch microseconds so they can be updated atomically
+    static final class Counters {
+        final LongAdder count = new LongAdder();
+        final AtomicLong first = new AtomicLong(Long.MAX_VALUE);
+        final AtomicLong last = new AtomicLong(Long.MIN_VALUE);
+        // Set when a device on the edge of the range went away; the range is then read again from the table
+        volatile boolean stale;
+
+        void add(LocalDateTime creationTime) {
+            count.increment();
+            if (creationTime == null) {
+                return;
+            }
+            long micros = toMicros(creationTime);
+            first.accumulateAndGet(micros, Math::min);
+            last.accumulateAndGet(micros, Math::max);
+        }
+
+        void remove(LocalDateTime creationTime) {
+            count.decrement();
+            if (creationTime == null) {
+                return;
+            }
+            long micros = toMicros(creationTime);
+            if (micros <= first.get() || micros >= last.get()) {
+                stale = true;
+            }
+        }
+
+        void reset(BrandTotals totals) {
+            count.add(totals.getCount() - count.sum());
+            setRange(totals);
+        }
+
+        // Both ends are null when none of the brand's devices has a creationTime
+        void setRange(BrandTotals totals) {
+            LocalDateTime firstCreationTime = totals.getFirstCreationTime();
+            LocalDateTime lastCreationTime = totals.getLastCreationTime();
+            first.set(firstCreationTime != null ? toMicros(firstCreationTime) : Long.MAX_VALUE);
+            last.set(lastCreationTime != null ? toMicros(lastCreationTime) : Long.MIN_VALUE);
+        }
+    }
+
+    private final DeviceStore deviceRepo;
+    private final ConcurrentHashMap<String, Counters> brands = new ConcurrentHashMap<>();
+
+    public BrandStatistics(DeviceStore deviceRepo) {
+        this.deviceRepo = deviceRepo;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (BrandTotals totals : deviceRepo.findBrandTotals()) {
+            counters(totals.getBrand()).reset(totals);
+        }
+        logger.info("Loaded statistics for {} brands", brands.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        DeviceSnapshot before = event.before();
+        DeviceSnapshot after = event.after();
+        if (before != null && after != null && before.brand().equals(after.brand())
+                && Objects.equals(before.creationTime(), after.creationTime())) {
+            return;
+        }
+        if (before != null) {
+            counters(before.brand()).remove(before.creationTime());
+        }
+        if (after != null) {
+            counters(after.brand()).add(after.creationTime());
+        }
+    }
+
+    // Brands with at least one device, in alphabetical order
+    public List<BrandStatsDTO> getStatistics() {
+        refreshStaleRanges();
+        List<BrandStatsDTO> statistics = new ArrayList<>(brands.size());
+        for (Map.Entry<String, Counters> entry : brands.entrySet()) {
+            Counters counters = entry.getValue();
+            long count = counters.count.sum();
+            if (count > 0) {
+                statistics.add(new BrandStatsDTO(entry.getKey(), count,
+                        format(counters.first.get(), Long.MAX_VALUE), format(counters.last.get(), Long.MIN_VALUE)));
+            }
+        }
+        statistics.sort((a, b) -> a.getBrand().compareTo(b.getBrand()));
+        return statistics;
+    }
+
+    // Corrects drift, e.g. from rows changed outside the application; changes committed while it runs are picked up next time
+    @Scheduled(fixedDelayString = "${device.stats.reconcile-interval:PT5M}",
+            initialDelayString = "${device.stats.reconcile-interval:PT5M}")
+    public void reconcile() {
+        Set<String> seen = new HashSet<>();
+        int corrected = 0;
+        for (BrandTotals totals : deviceRepo.findBrandTotals()) {
+            seen.add(totals.getBrand());
+            Counters counters = counters(totals.getBrand());
+            if (counters.count.sum() != totals.getCount()) {
+                corrected++;
+            }
+            counters.stale = false;
+            counters.reset(totals);
+        }
+        for (String brand : brands.keySet()) {
+            if (!seen.contains(brand)) {
+                Counters removed = brands.remove(brand);
+                if (removed != null && removed.count.sum() != 0) {
+                    corrected++;
+                }
+            }
+        }
+        if (corrected > 0) {
+            logger.info("Reconciled brand statistics, corrected {} brands", corrected);
+        }
+    }
+
+    private void refreshStaleRanges() {
+        List<String> stale = new ArrayList<>();
+        for (Map.Entry<String, Counters> entry : brands.entrySet()) {
+            if (entry.getValue().stale) {
+                entry.getValue().stale = false;
+                stale.add(entry.getKey());
+            }
+        }
+        if (stale.isEmpty()) {
+            return;
+        }
+        Set<String> found = new HashSet<>();
+        for (BrandTotals totals : deviceRepo.findBrandTotalsByBrandIn(stale)) {
+            found.add(totals.getBrand());
+            Counters counters = brands.get(totals.getBrand());
+            if (counters != null) {
+                counters.setRange(totals);
+            }
+        }
+        // A brand with no rows left has no range to report, whatever its counter says
+        for (String brand : stale) {
+            Counters counters = brands.get(brand);
+            if (!found.contains(brand) && counters != null) {
+                counters.count.add(-counters.count.sum());
+                counters.first.set(Long.MAX_VALUE);
+                counters.last.set(Long.MIN_VALUE);
+            }
+        }
+    }
+
+    private Counters counters(String brand) {
+        return brands.computeIfAbsent(brand, key -> new Counters());
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    // Null while the range is still empty
+    private static String format(long micros, long empty) {
+        if (micros == empty) {
+            return null;
+        }
+        return TimestampCodec.format(LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC));
+    }
+}
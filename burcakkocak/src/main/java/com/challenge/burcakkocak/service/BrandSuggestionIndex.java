@@ -0,0 +1,87 @@
+package com.challenge.burcakkocak.service;
+
+import com.challenge.burcakkocak.entity.Device;
+import com.challenge.burcakkocak.event.DeviceChangedEvent;
+import com.challenge.burcakkocak.event.DeviceSnapshot;
+import com.challenge.burcakkocak.repo.BrandCount;
+import com.challenge.burcakkocak.repo.DeviceStore;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sorted in-memory set of the distinct brands, used for type-ahead suggestions.
+ * Loaded with one GROUP BY before the server accepts requests, then kept current from committed device changes.
+ */
+@Component
+public class BrandSuggestionIndex implements SmartInitializingSingleton {
+
+    static final int MAX_SUGGESTIONS = 100;
+
+    // Brand as first seen and the number of devices sharing its lower-cased key
+    record BrandEntry(String brand, long count) {
+    }
+
+    private final DeviceStore deviceRepo;
+    private final ConcurrentSkipListMap<String, BrandEntry> brands = new ConcurrentSkipListMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(BrandSuggestionIndex.class);
+
+    public BrandSuggestionIndex(DeviceStore deviceRepo) {
+        this.deviceRepo = deviceRepo;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (BrandCount brandCount : deviceRepo.countDevicesByBrand()) {
+            add(brandCount.getBrand(), brandCount.getCount());
+        }
+        logger.info("Loaded {} distinct brands", brands.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        DeviceSnapshot before = event.before();
+        DeviceSnapshot after = event.after();
+        if (before != null && after != null && before.brand().equals(after.brand())) {
+            return;
+        }
+        if (before != null) {
+            remove(before.brand());
+        }
+        if (after != null) {
+            add(after.brand(), 1);
+        }
+    }
+
+    // Brands whose lower-cased form starts with the lower-cased prefix, in alphabetical order
+    public List<String> suggest(String prefix, int limit) {
+        String from = Device.toBrandKey(prefix);
+        int max = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        List<String> suggestions = new ArrayList<>(max);
+        for (Map.Entry<String, BrandEntry> entry : brands.tailMap(from).entrySet()) {
+            if (!entry.getKey().startsWith(from) || suggestions.size() == max) {
+                break;
+            }
+            suggestions.add(entry.getValue().brand());
+        }
+        return suggestions;
+    }
+
+    private void add(String brand, long count) {
+        brands.compute(Device.toBrandKey(brand),
+                (key, entry) -> entry == null ? new BrandEntry(brand, count) : new BrandEntry(entry.brand(), entry.count() + count));
+    }
+
+    private void remove(String brand) {
+        brands.computeIfPresent(Device.toBrandKey(brand),
+                (key, entry) -> entry.count() <= 1 ? null : new BrandEntry(entry.brand(), entry.count() - 1));
+    }
+}
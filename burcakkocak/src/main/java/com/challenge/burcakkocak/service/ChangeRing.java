@@ -0,0 +1,57 @@
+package com.challenge.burcakkocak.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size ring of the latest entries, each numbered with the next sequence number starting at 1.
+ * Appending never blocks on readers: once the ring is full the oldest entry is overwritten, and a reader that
+ * asks for it learns it has fallen behind.
+ */
+final class ChangeRing<T> {
+
+    private final Object[] entries;
+    private long nextSequence = 1;
+
+    ChangeRing(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Ring capacity must be positive: " + capacity);
+        }
+        this.entries = new Object[capacity];
+    }
+
+    // Returns the sequence number of the appended entry
+    synchronized long append(T entry) {
+        long sequence = nextSequence++;
+        entries[index(sequence)] = entry;
+        return sequence;
+    }
+
+    // Sequence number the next appended entry will get
+    synchronized long nextSequence() {
+        return nextSequence;
+    }
+
+    // Oldest sequence number still held; equal to nextSequence() while the ring is empty
+    synchronized long oldestSequence() {
+        return Math.max(1, nextSequence - entries.length);
+    }
+
+    // Up to max entries from the given sequence number onwards, or null when the ring no longer holds it
+    @SuppressWarnings("unchecked")
+    synchronized List<T> read(long from, int max) {
+        if (from < oldestSequence()) {
+            return null;
+        }
+        int count = (int) Math.min(max, nextSequence - from);
+        List<T> read = new ArrayList<>(Math.max(count, 0));
+        for (long sequence = from; sequence < from + count; sequence++) {
+            read.add((T) entries[index(sequence)]);
+        }
+        return read;
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % entries.length);
+    }
+}
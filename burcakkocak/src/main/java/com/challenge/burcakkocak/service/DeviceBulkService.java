@@ -0,0 +1,143 @@
+package com.challenge.burcakkocak.service;
+
+import com.challenge.burcakkocak.config.DeviceProperties;
+import com.challenge.burcakkocak.entity.Device;
+import com.challenge.burcakkocak.entity.dto.DeviceBulkResultDTO;
+import com.challenge.burcakkocak.entity.dto.DeviceRequestDTO;
+import com.challenge.burcakkocak.entity.dto.DeviceResponseDTO;
+import com.challenge.burcakkocak.exception.InvalidRequestException;
+import com.challenge.burcakkocak.mapper.Mapper;
+import com.challenge.burcakkocak.repo.DeviceView;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Service;
+
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@Service
+public class DeviceBulkService {
+
+    private final DeviceService deviceService;
+    private final Mapper deviceMapper;
+    private final Validator validator;
+    private final DeviceProperties properties;
+    private static final Logger logger = LoggerFactory.getLogger(DeviceBulkService.class);
+
+    public DeviceBulkService(DeviceService deviceService, Mapper deviceMapper, Validator validator,
+                             DeviceProperties properties) {
+        this.deviceService = deviceService;
+        this.deviceMapper = deviceMapper;
+        this.validator = validator;
+        this.properties = properties;
+    }
+
+    // Validates every item, then persists the valid ones chunk by chunk, one transaction per chunk.
+    // A failing chunk only fails its own items; earlier chunks stay committed.
+    public List<DeviceBulkResultDTO> addDevices(List<DeviceRequestDTO> dtos) {
+        logger.debug("Called addDevices(List<DeviceRequestDTO> dtos): {} items", dtos.size());
+
+        if (dtos.size() > properties.getBulk().getMaxItems()) {
+            throw new InvalidRequestException("At most " + properties.getBulk().getMaxItems() + " devices can be added at once");
+        }
+
+        DeviceBulkResultDTO[] results = new DeviceBulkResultDTO[dtos.size()];
+        int chunkSize = properties.getBulk().getChunkSize();
+        List<Integer> chunkIndexes = new ArrayList<>(chunkSize);
+        List<Device> chunk = new ArrayList<>(chunkSize);
+
+        for (int i = 0; i < dtos.size(); i++) {
+            Map<String, String> errors = validate(dtos.get(i));
+            if (errors.isEmpty()) {
+                try {
+                    chunk.add(deviceMapper.toEntity(dtos.get(i)));
+                    chunkIndexes.add(i);
+                } catch (DateTimeParseException e) {
+                    errors.put("creationTime", "Creation time is not a valid date: " + dtos.get(i).getCreationTime());
+                }
+            }
+            if (!errors.isEmpty()) {
+                results[i] = new DeviceBulkResultDTO(i, DeviceBulkResultDTO.Status.INVALID, null, errors);
+            }
+            if (chunk.size() == chunkSize) {
+                persistChunk(chunk, chunkIndexes, results);
+                chunk.clear();
+                chunkIndexes.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            persistChunk(chunk, chunkIndexes, results);
+        }
+        return List.of(results);
+    }
+
+    // Deletes the brand chunk-size devices at a time, one transaction per chunk, so the removed rows and their events
+    // are never all held at once. Chunks already deleted stay deleted if a later one fails
+    public long deleteDevicesByBrand(String brand) {
+        logger.debug("Called deleteDevicesByBrand(String brand): {}", brand);
+
+        int chunkSize = properties.getBulk().getChunkSize();
+        long deleted = 0;
+        long chunk;
+        do {
+            chunk = deviceService.deleteDevicesByBrand(brand, chunkSize);
+            deleted += chunk;
+        } while (chunk == chunkSize);
+        return deleted;
+    }
+
+    // Patches the brand chunk-size devices at a time in id order, one transaction per chunk, like deleteDevicesByBrand.
+    // The body is validated by the first chunk, before anything is written
+    public long patchDevicesByBrand(String brand, DeviceRequestDTO dto) {
+        logger.debug("Called patchDevicesByBrand(String brand, DeviceRequestDTO dto): {}", brand);
+
+        int chunkSize = properties.getBulk().getChunkSize();
+        long updated = 0;
+        long afterId = 0L;
+        List<DeviceView> chunk;
+        do {
+            chunk = deviceService.patchDevicesByBrand(brand, dto, afterId, chunkSize);
+            updated += chunk.size();
+            for (DeviceView device : chunk) {
+                afterId = Math.max(afterId, device.id());
+            }
+        } while (chunk.size() == chunkSize);
+        return updated;
+    }
+
+    private void persistChunk(List<Device> chunk, List<Integer> chunkIndexes, DeviceBulkResultDTO[] results) {
+        try {
+            List<DeviceResponseDTO> created = deviceService.addDevices(chunk);
+            for (int i = 0; i < created.size(); i++) {
+                int index = chunkIndexes.get(i);
+                results[index] = new DeviceBulkResultDTO(index, DeviceBulkResultDTO.Status.CREATED, created.get(i), null);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not persist a chunk of {} devices", chunk.size(), e);
+            for (int index : chunkIndexes) {
+                results[index] = new DeviceBulkResultDTO(index, DeviceBulkResultDTO.Status.FAILED, null,
+                        Map.of("error", "Could not persist device: " + e.getMessage()));
+            }
+        }
+    }
+
+    private Map<String, String> validate(DeviceRequestDTO dto) {
+        Map<String, String> errors = new HashMap<>();
+        if (dto == null) {
+            errors.put("device", "Device is required");
+            return errors;
+        }
+        Set<ConstraintViolation<DeviceRequestDTO>> violations = validator.validate(dto);
+        for (ConstraintViolation<DeviceRequestDTO> violation : violations) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,274 @@
+package com.challenge.burcakkocak.service;
+
+import com.challenge.burcakkocak.config.DeviceProperties;
+import com.challenge.burcakkocak.entity.dto.DeviceChangeDTO;
+import com.challenge.burcakkocak.event.DeviceChangedEvent;
+import com.challenge.burcakkocak.event.DeviceSnapshot;
+import com.challenge.burcakkocak.exception.InvalidRequestException;
+import com.challenge.burcakkocak.mapper.Mapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Committed device changes as server-sent events for /device/changes.
+ * Every change is serialized once, numbered and kept in a {@link ChangeRing}, so a client reconnecting with
+ * Last-Event-ID resumes where it stopped as long as the ring still holds the next event. Each subscriber reads the
+ * ring at its own position and only occupies one of device.changes.sender-threads while it has events to write. One
+ * that falls more than the ring size behind, or whose send blocks for longer than device.changes.write-timeout because
+ * the client stopped reading, is disconnected instead of buffering for it or holding a sender thread.
+ */
+@Component
+public class DeviceChangeFeed implements DisposableBean {
+
+    static final int BATCH_SIZE = 256;
+
+    // A change as it goes on the wire: event name and JSON data
+    record Change(String name, String data) {
+    }
+
+    private final Mapper deviceMapper;
+    private final ObjectMapper objectMapper;
+    private final ChangeRing<Change> ring;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // At most one drain per subscriber is queued, so the queue is bounded by the number of subscribers
+    private final ThreadPoolExecutor senders;
+    private final long writeTimeoutNanos;
+    private static final Logger logger = LoggerFactory.getLogger(DeviceChangeFeed.class);
+
+    public DeviceChangeFeed(Mapper deviceMapper, ObjectMapper objectMapper, DeviceProperties properties) {
+        this.deviceMapper = deviceMapper;
+        this.objectMapper = objectMapper;
+        DeviceProperties.Changes changes = properties.getChanges();
+        this.ring = new ChangeRing<>(changes.getBufferSize());
+        this.senders = new ThreadPoolExecutor(changes.getSenderThreads(), changes.getSenderThreads(), 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), daemonThreads());
+        this.senders.allowCoreThreadTimeOut(true);
+        this.writeTimeoutNanos = changes.getWriteTimeout().toNanos();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        DeviceSnapshot device = event.after() != null ? event.after() : event.before();
+        DeviceChangeDTO change = new DeviceChangeDTO(event.type().name(), event.id(), deviceMapper.toResponseDTO(device));
+        ring.append(new Change(event.type().name().toLowerCase(Locale.ROOT), toJson(change)));
+        for (Subscriber subscriber : subscribers) {
+            subscriber.signal();
+        }
+    }
+
+    // Without lastEventId the stream starts with the next change. If the changes after lastEventId are no longer
+    // held, a reset event tells the client to reload before the stream continues with the next change
+    public SseEmitter subscribe(String lastEventId) {
+        long next = ring.nextSequence();
+        boolean reset = false;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            long from = parseEventId(lastEventId) + 1;
+            if (from >= ring.oldestSequence() && from <= next) {
+                next = from;
+            } else {
+                reset = true;
+            }
+        }
+        Subscriber subscriber = new Subscriber(new SseEmitter(), next, reset);
+        subscribers.add(subscriber);
+        subscriber.signal();
+        logger.debug("Change feed subscriber starts at {}, {} subscribers", next, subscribers.size());
+        return subscriber.emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Scheduled(fixedDelayString = "${device.changes.heartbeat-interval:PT15S}",
+            initialDelayString = "${device.changes.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            subscriber.signal();
+        }
+    }
+
+    @Scheduled(fixedDelay = 1000L, initialDelay = 1000L)
+    public void disconnectStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.interruptStalledSend(now);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        senders.shutdownNow();
+    }
+
+    private long parseEventId(String lastEventId) {
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Last-Event-ID must be a change sequence number");
+        }
+    }
+
+    private String toJson(DeviceChangeDTO change) {
+        try {
+            return objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static CustomizableThreadFactory daemonThreads() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("device-changes-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        // Sequence number of the next change to send; only touched by the sender currently draining
+        private long next;
+        private boolean reset;
+        private volatile boolean heartbeatDue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // The thread blocked in a send and when the send started; guarded by this
+        private Thread sender;
+        private long sendStarted;
+        private boolean interrupted;
+
+        private Subscriber(SseEmitter emitter, long next, boolean reset) {
+            this.emitter = emitter;
+            this.next = next;
+            this.reset = reset;
+            emitter.onCompletion(() -> subscribers.remove(this));
+            emitter.onError(e -> subscribers.remove(this));
+        }
+
+        // Schedules a drain unless one is already running; that one picks up whatever was appended meanwhile
+        private void signal() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                try {
+                    if (!sendPending()) {
+                        return;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // The client went away; the container completes the emitter and onError unsubscribes
+                    logger.debug("Change feed subscriber dropped: {}", e.getMessage());
+                    subscribers.remove(this);
+                    return;
+                } finally {
+                    draining.set(false);
+                }
+            } while (hasPending() && draining.compareAndSet(false, true));
+        }
+
+        // Sends everything up to the end of the ring; false when the subscriber was disconnected
+        private boolean sendPending() throws IOException {
+            if (reset) {
+                send(SseEmitter.event().id(Long.toString(next - 1)).name("reset")
+                        .data(toJson(new DeviceChangeDTO("RESET", null, null)), MediaType.APPLICATION_JSON));
+                reset = false;
+            }
+            boolean sent = false;
+            List<Change> changes;
+            while ((changes = ring.read(next, BATCH_SIZE)) != null && !changes.isEmpty()) {
+                for (Change change : changes) {
+                    // Checked before every send, as a send to a client that stopped reading blocks
+                    if (!subscribers.contains(this) || fellBehind()) {
+                        changes = null;
+                        break;
+                    }
+                    send(SseEmitter.event().id(Long.toString(next++)).name(change.name())
+                            .data(change.data(), MediaType.APPLICATION_JSON));
+                }
+                if (changes == null) {
+                    break;
+                }
+                sent = true;
+            }
+            if (changes == null) {
+                if (subscribers.remove(this)) {
+                    logger.warn("Disconnecting change feed subscriber that fell behind at sequence {}", next);
+                    emitter.complete();
+                }
+                return false;
+            }
+            if (heartbeatDue) {
+                heartbeatDue = false;
+                if (!sent) {
+                    send(SseEmitter.event().comment(""));
+                }
+            }
+            return true;
+        }
+
+        private boolean fellBehind() {
+            return next < ring.oldestSequence();
+        }
+
+        private boolean hasPending() {
+            return next < ring.nextSequence() || heartbeatDue;
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            synchronized (this) {
+                sender = Thread.currentThread();
+                sendStarted = System.nanoTime();
+            }
+            try {
+                emitter.send(event);
+            } finally {
+                synchronized (this) {
+                    sender = null;
+                    if (interrupted) {
+                        // The interrupt may have come after the send returned; it must not reach the next drain
+                        Thread.interrupted();
+                    }
+                }
+            }
+        }
+
+        // Disconnects the subscriber and interrupts its sender if a send has been blocked for the write timeout
+        private synchronized void interruptStalledSend(long now) {
+            if (sender == null || interrupted || now - sendStarted < writeTimeoutNanos) {
+                return;
+            }
+            logger.warn("Disconnecting change feed subscriber whose send has been blocked since sequence {}", next);
+            interrupted = true;
+            subscribers.remove(this);
+            sender.interrupt();
+            emitter.completeWithError(new IOException("Change feed write timed out"));
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.challenge.burcakkocak.service;
+
+import com.challenge.burcakkocak.config.DeviceProperties;
+import com.challenge.burcakkocak.event.DeviceChangedEvent;
+import com.challenge.burcakkocak.repo.DeviceStore;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bitmap of the existing device ids, one bit per id, so lookups of ids that do not exist are answered without a query.
+ * Loaded from the primary key index before the server accepts requests, then kept current from device changes and
+ * reloaded periodically, so rows inserted by other writers of the database are found after the next reload at latest.
+ * Sequence ids are dense, which keeps the bitmap small: one million devices take 128 KB.
+ * The bitmap never reports an existing id as missing, but may report a deleted or rolled back one as present,
+ * in which case the lookup simply goes to the database.
+ */
+@Component
+public class DeviceIdFilter implements SmartInitializingSingleton {
+
+    // Larger ids would need more than 128 MB; once one is seen the filter stops answering
+    static final long MAX_ID = 1L << 30;
+    private static final int LOAD_PAGE_SIZE = 10000;
+
+    private final DeviceStore deviceRepo;
+    private final DeviceProperties properties;
+    private volatile AtomicLongArray words = new AtomicLongArray(0);
+    // False until the ids are loaded, and when disabled or overflowed; every id might exist then
+    private volatile boolean active;
+    private boolean overflowed;
+    // Ids created while a reload reads the table, which it may have passed already; null when no reload runs
+    private List<Long> createdDuringReload;
+    private static final Logger logger = LoggerFactory.getLogger(DeviceIdFilter.class);
+
+    public DeviceIdFilter(DeviceStore deviceRepo, DeviceProperties properties) {
+        this.deviceRepo = deviceRepo;
+        this.properties = properties;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!properties.getIdFilter().isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        long count = load();
+        logger.info("Loaded {} device ids into a {} KB bitmap in {} ms", count, words.length() / 128,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Picks up rows inserted without an event from this application, e.g. by another instance sharing the database,
+    // and drops deleted ids the events missed
+    @Scheduled(fixedDelayString = "${device.id-filter.reload-interval:PT5M}",
+            initialDelayString = "${device.id-filter.reload-interval:PT5M}")
+    public void reload() {
+        synchronized (this) {
+            if (!active) {
+                return;
+            }
+        }
+        long start = System.nanoTime();
+        long count = load();
+        logger.debug("Reloaded {} device ids in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Reads every id into a new bitmap and swaps it in with the ids created meanwhile; returns the number of ids read.
+    // If reading fails the current bitmap stays, as a partial one would report existing ids as missing
+    private long load() {
+        synchronized (this) {
+            createdDuringReload = new ArrayList<>();
+        }
+        AtomicLongArray loaded = new AtomicLongArray(words.length());
+        boolean tooLarge = false;
+        boolean complete = false;
+        long count = 0;
+        long after = 0L;
+        List<Long> ids;
+        try {
+            do {
+                ids = deviceRepo.findIdsAfter(after, Limit.of(LOAD_PAGE_SIZE));
+                for (Long id : ids) {
+                    if (id >= MAX_ID) {
+                        tooLarge = true;
+                    } else if (id >= 0) {
+                        loaded = set(loaded, id);
+                    }
+                }
+                count += ids.size();
+                after = ids.isEmpty() ? after : ids.get(ids.size() - 1);
+            } while (ids.size() == LOAD_PAGE_SIZE);
+            complete = true;
+        } finally {
+            synchronized (this) {
+                List<Long> created = createdDuringReload;
+                createdDuringReload = null;
+                if (tooLarge) {
+                    overflow(after);
+                }
+                if (complete && !overflowed) {
+                    for (Long id : created) {
+                        loaded = set(loaded, id);
+                    }
+                    words = loaded;
+                    active = true;
+                }
+            }
+        }
+        return count;
+    }
+
+    // False only when the device certainly does not exist
+    public boolean mightExist(long id) {
+        if (!active) {
+            return true;
+        }
+        if (id < 0 || id >= MAX_ID) {
+            return false;
+        }
+        AtomicLongArray current = words;
+        int word = (int) (id >>> 6);
+        return word < current.length() && (current.get(word) & (1L << id)) != 0;
+    }
+
+    // Marked when the id is assigned, before the commit, so a committed device is never reported missing
+    @EventListener
+    public void onDeviceCreated(DeviceChangedEvent event) {
+        if (event.type() == DeviceChangedEvent.Type.CREATED) {
+            add(event.id());
+        }
+    }
+
+    // Cleared only after the delete has committed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceDeleted(DeviceChangedEvent event) {
+        if (event.type() == DeviceChangedEvent.Type.DELETED) {
+            remove(event.id());
+        }
+    }
+
+    private synchronized void add(long id) {
+        if (overflowed || id < 0) {
+            return;
+        }
+        if (id >= MAX_ID) {
+            overflow(id);
+            return;
+        }
+        if (createdDuringReload != null) {
+            createdDuringReload.add(id);
+        }
+        words = set(words, id);
+    }
+
+    private void overflow(long id) {
+        overflowed = true;
+        active = false;
+        logger.warn("Device id {} is too large for the id bitmap, lookups of unknown ids now go to the database", id);
+    }
+
+    // Sets the bit of id, growing the bitmap if needed; returns the bitmap holding it
+    private static AtomicLongArray set(AtomicLongArray bitmap, long id) {
+        int word = (int) (id >>> 6);
+        if (word >= bitmap.length()) {
+            AtomicLongArray grown = new AtomicLongArray(Math.max(word + 1, bitmap.length() * 2));
+            for (int i = 0; i < bitmap.length(); i++) {
+                grown.set(i, bitmap.get(i));
+            }
+            bitmap = grown;
+        }
+        bitmap.set(word, bitmap.get(word) | (1L << id));
+        return bitmap;
+    }
+
+    private synchronized void remove(long id) {
+        AtomicLongArray current = words;
+        int word = (int) (id >>> 6);
+        if (id >= 0 && id < MAX_ID && word < current.length()) {
+            current.set(word, current.get(word) & ~(1L << id));
+        }
+    }
+}
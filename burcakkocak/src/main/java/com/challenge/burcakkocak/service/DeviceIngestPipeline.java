@@ -0,0 +1,208 @@
+package com.challenge.burcakkocak.service;
+
+import com.challenge.burcakkocak.config.DeviceProperties;
+import com.challenge.burcakkocak.entity.Device;
+import com.challenge.burcakkocak.entity.dto.DeviceRequestDTO;
+import com.challenge.burcakkocak.entity.dto.DeviceResponseDTO;
+import com.challenge.burcakkocak.entity.dto.IngestStatusDTO;
+import com.challenge.burcakkocak.exception.IngestRejectedException;
+import com.challenge.burcakkocak.exception.InvalidRequestException;
+import com.challenge.burcakkocak.exception.ResourceNotFoundException;
+import com.challenge.burcakkocak.mapper.Mapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write-behind ingestion for POST /device/async. Accepted devices wait in a bounded queue, and a single writer thread
+ * persists them in batches: a batch is written once it holds batch-size devices or max-delay after its first device
+ * arrived, in one transaction. A full queue is reported to the client as 429 instead of growing.
+ * On shutdown the queue is drained after the web server has stopped taking requests.
+ */
+@Service
+public class DeviceIngestPipeline implements SmartLifecycle {
+
+    // Lower than the web server's phases, so this stops after the server no longer accepts requests
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+    // How often an idle or lingering writer checks whether it should stop
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    record Submission(String token, Device device) {
+    }
+
+    private final DeviceService deviceService;
+    private final Mapper deviceMapper;
+    private final DeviceProperties.Ingest settings;
+    private final BlockingQueue<Submission> queue;
+    private final Cache<String, IngestStatusDTO> statuses;
+    private final Counter rejected;
+    private volatile boolean accepting;
+    private volatile Thread writer;
+    private static final Logger logger = LoggerFactory.getLogger(DeviceIngestPipeline.class);
+
+    public DeviceIngestPipeline(DeviceService deviceService, Mapper deviceMapper, DeviceProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.deviceService = deviceService;
+        this.deviceMapper = deviceMapper;
+        this.settings = properties.getIngest();
+        this.queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(settings.getStatusMaximumSize())
+                .expireAfterWrite(settings.getStatusTtl())
+                .build();
+        Gauge.builder("device.ingest.queue.size", queue, BlockingQueue::size)
+                .description("Devices accepted by POST /device/async and not yet written")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("device.ingest.rejected")
+                .description("Devices turned away with 429 because the ingest queue was full")
+                .register(meterRegistry);
+    }
+
+    // Expects a validated DTO; the creationTime defaults to the time of acceptance
+    public IngestStatusDTO submit(DeviceRequestDTO dto) {
+        Device device;
+        try {
+            device = deviceMapper.toEntity(dto);
+        } catch (DateTimeParseException e) {
+            throw new InvalidRequestException("Creation time is not a valid date: " + dto.getCreationTime());
+        }
+        if (!accepting) {
+            throw new IngestRejectedException("Device ingestion is not running", settings.getRetryAfter());
+        }
+        IngestStatusDTO status = new IngestStatusDTO(UUID.randomUUID().toString(), IngestStatusDTO.Status.QUEUED, null, null);
+        // Recorded before queueing, so the writer's outcome cannot be overwritten by it
+        statuses.put(status.getToken(), status);
+        if (!queue.offer(new Submission(status.getToken(), device))) {
+            statuses.invalidate(status.getToken());
+            rejected.increment();
+            throw new IngestRejectedException("The ingest queue is full, retry later", settings.getRetryAfter());
+        }
+        return status;
+    }
+
+    public IngestStatusDTO getStatus(String token) {
+        IngestStatusDTO status = statuses.getIfPresent(token);
+        if (status == null) {
+            throw new ResourceNotFoundException("No queued device found with token: " + token);
+        }
+        return status;
+    }
+
+    @Override
+    public synchronized void start() {
+        accepting = true;
+        writer = new Thread(this::run, "device-ingest");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Stops accepting and waits until the queue has been written, at most drain-timeout
+    @Override
+    public synchronized void stop() {
+        Thread running = writer;
+        if (running == null) {
+            return;
+        }
+        accepting = false;
+        long start = System.nanoTime();
+        try {
+            running.join(settings.getDrainTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (running.isAlive()) {
+            logger.warn("Ingest queue not drained within {}, {} devices left unwritten", settings.getDrainTimeout(), queue.size());
+        } else {
+            logger.info("Ingest queue drained in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    int getQueueSize() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<Submission> batch = new ArrayList<>(settings.getBatchSize());
+        while (accepting || !queue.isEmpty()) {
+            try {
+                if (fill(batch)) {
+                    write(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    // Waits briefly for a first device, then takes more until the batch is full or max-delay has passed.
+    // Once stopping, whatever is queued is taken without waiting
+    private boolean fill(List<Submission> batch) throws InterruptedException {
+        Submission first = queue.poll(POLL_NANOS, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return false;
+        }
+        batch.add(first);
+        int batchSize = settings.getBatchSize();
+        long deadline = System.nanoTime() + settings.getMaxDelay().toNanos();
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() == batchSize || remaining <= 0 || !accepting) {
+                break;
+            }
+            Submission next = queue.poll(Math.min(remaining, POLL_NANOS), TimeUnit.NANOSECONDS);
+            if (next != null) {
+                batch.add(next);
+            }
+        }
+        return true;
+    }
+
+    private void write(List<Submission> batch) {
+        List<Device> devices = new ArrayList<>(batch.size());
+        for (Submission submission : batch) {
+            devices.add(submission.device());
+        }
+        try {
+            List<DeviceResponseDTO> created = deviceService.addDevices(devices);
+            for (int i = 0; i < created.size(); i++) {
+                String token = batch.get(i).token();
+                statuses.put(token, new IngestStatusDTO(token, IngestStatusDTO.Status.CREATED, created.get(i), null));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not persist a batch of {} queued devices", batch.size(), e);
+            for (Submission submission : batch) {
+                statuses.put(submission.token(), new IngestStatusDTO(submission.token(), IngestStatusDTO.Status.FAILED, null,
+                        "Could not persist device: " + e.getMessage()));
+            }
+        }
+    }
+}
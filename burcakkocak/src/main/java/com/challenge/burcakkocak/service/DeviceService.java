@@ -1,17 +1,44 @@
 package com.challenge.burcakkocak.service;
 
+import com.challenge.burcakkocak.config.DeviceProperties;
+import com.challenge.burcakkocak.entity.dto.CacheStatsDTO;
+import com.challenge.burcakkocak.entity.dto.CreatedStatsDTO;
+import com.challenge.burcakkocak.entity.dto.DevicePageDTO;
 import com.challenge.burcakkocak.entity.dto.DeviceRequestDTO;
 import com.challenge.burcakkocak.entity.dto.DeviceResponseDTO;
 import com.challenge.burcakkocak.entity.Device;
+import com.challenge.burcakkocak.event.DeviceChangedEvent;
+import com.challenge.burcakkocak.event.DeviceSnapshot;
+import com.challenge.burcakkocak.exception.InvalidRequestException;
+import com.challenge.burcakkocak.exception.PreconditionFailedException;
 import com.challenge.burcakkocak.exception.ResourceNotFoundException;
-import com.challenge.burcakkocak.repo.DeviceRepo;
+import com.challenge.burcakkocak.repo.CreatedCount;
+import com.challenge.burcakkocak.repo.DevicePatch;
+import com.challenge.burcakkocak.repo.DeviceStore;
+import com.challenge.burcakkocak.repo.DeviceView;
+import com.challenge.burcakkocak.repo.TimeBucket;
+import com.challenge.burcakkocak.mapper.CursorCodec;
 import com.challenge.burcakkocak.mapper.Mapper;
-import jakarta.transaction.Transactional;
+import com.challenge.burcakkocak.mapper.TimestampCodec;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import java.util.ArrayList;
 
@@ -19,88 +46,386 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @Service
+@Timed(value = "device.service", description = "DeviceService method calls", histogram = true)
 public class DeviceService {
 
-    private final DeviceRepo deviceRepo;
+    private final DeviceStore deviceRepo;
     private final Mapper deviceMapper;
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private final DeviceProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DeviceIdFilter deviceIdFilter;
+    private final AsyncCache<Long, DeviceResponseDTO> deviceCache;
+    // Stand-ins for a missing createdFrom or createdTo, so the range query always has both index bounds
+    private static final LocalDateTime MIN_CREATION_TIME = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_CREATION_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
     private static final Logger logger = LoggerFactory.getLogger(DeviceService.class);
 
-    public DeviceService(DeviceRepo deviceRepo, Mapper deviceMapper) {
+    public DeviceService(DeviceStore deviceRepo, Mapper deviceMapper, DeviceProperties properties,
+                         ApplicationEventPublisher eventPublisher, DeviceIdFilter deviceIdFilter) {
         this.deviceRepo = deviceRepo;
         this.deviceMapper = deviceMapper;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.deviceIdFilter = deviceIdFilter;
+        this.deviceCache = Caffeine.newBuilder()
+                .maximumSize(properties.getCache().getMaximumSize())
+                .expireAfterWrite(properties.getCache().getTtl())
+                .recordStats()
+                .buildAsync();
     }
 
     @Transactional
     public DeviceResponseDTO addDevice(DeviceRequestDTO dto) {
         logger.debug("Called addDevice(DeviceRequestDTO dto): {}", dto);
 
-        Device device = deviceMapper.toEntity(dto);
-        return deviceMapper.toResponseDTO(deviceRepo.save(device));
+        Device device = deviceRepo.save(deviceMapper.toEntity(dto));
+        eventPublisher.publishEvent(DeviceChangedEvent.created(device));
+        return deviceMapper.toResponseDTO(device);
+    }
+
+    // Persists one chunk of a bulk request; with sequence ids the inserts are sent as JDBC batches on flush
+    @Transactional
+    public List<DeviceResponseDTO> addDevices(List<Device> devices) {
+        logger.debug("Called addDevices(List<Device> devices): {} devices", devices.size());
+
+        List<Device> saved = deviceRepo.saveAll(devices);
+        deviceRepo.flush();
+        List<DeviceResponseDTO> responseDTOs = new ArrayList<DeviceResponseDTO>(saved.size());
+        for (Device device : saved) {
+            eventPublisher.publishEvent(DeviceChangedEvent.created(device));
+            responseDTOs.add(deviceMapper.toResponseDTO(device));
+        }
+        return responseDTOs;
     }
 
+    // Read-through: concurrent misses for the same id wait for a single load. Ids that certainly do not exist are
+    // answered from DeviceIdFilter, before the cache, whose misses for missing devices would all reach the database.
+    // Not transactional so cache hits never take a connection; findViewById runs in the repository's read-only transaction
     public DeviceResponseDTO getDeviceById(Long id) {
-        logger.info("Called getDeviceById(Long id): {}", id);
+        logger.debug("Called getDeviceById(Long id): {}", id);
 
-        Device device = findDeviceById(id);
-        return deviceMapper.toResponseDTO(device);
+        if (!deviceIdFilter.mightExist(id)) {
+            throw notFound(id);
+        }
+        CompletableFuture<DeviceResponseDTO> loading = new CompletableFuture<>();
+        CompletableFuture<DeviceResponseDTO> cached = deviceCache.get(id, (key, executor) -> loading);
+        if (cached == loading) {
+            // This caller won the miss; load outside the cache's lock.
+            // A missing device completes with null, which the cache drops instead of storing
+            try {
+                loading.complete(deviceRepo.findViewById(id).map(deviceMapper::toResponseDTO).orElse(null));
+            } catch (RuntimeException e) {
+                loading.completeExceptionally(e);
+            }
+        }
+        DeviceResponseDTO device;
+        try {
+            device = cached.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        if (device == null) {
+            throw notFound(id);
+        }
+        return device;
     }
 
-    public List<DeviceResponseDTO> getAllDevices() {
-        logger.info("Called getAllDevices()");
+    public CacheStatsDTO getCacheStats() {
+        CacheStats stats = deviceCache.synchronous().stats();
+        return new CacheStatsDTO(deviceCache.synchronous().estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount());
+    }
 
-        List<Device> devices = deviceRepo.findAll();
-        List<DeviceResponseDTO> responseDTOs = new ArrayList<DeviceResponseDTO>();
-        for (Device device : devices) {
-            responseDTOs.add(deviceMapper.toResponseDTO(device));
+    // Runs after the change is committed, so a concurrent read cannot cache the old state again
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        if (event.type() != DeviceChangedEvent.Type.CREATED) {
+            deviceCache.synchronous().invalidate(event.id());
         }
-        return responseDTOs;
     }
 
+    // Read-only transactions run with flush mode MANUAL, and the projected rows are never managed
+    @Transactional(readOnly = true)
+    public DevicePageDTO getAllDevices(String after, Integer limit) {
+        logger.debug("Called getAllDevices(String after, Integer limit): {}, {}", after, limit);
+
+        int pageSize = resolvePageSize(limit);
+        List<DeviceView> devices = deviceRepo.findPageAfter(CursorCodec.decode(after), Limit.of(pageSize + 1));
+        return toPage(devices, pageSize);
+    }
+
+    // Devices created in [createdFrom, createdTo), either bound may be left out; pages are ordered by creationTime, then id
+    @Transactional(readOnly = true)
+    public DevicePageDTO getDevicesCreatedBetween(String createdFrom, String createdTo, String after, Integer limit) {
+        logger.debug("Called getDevicesCreatedBetween(String createdFrom, String createdTo, String after, Integer limit): {}, {}, {}, {}",
+                createdFrom, createdTo, after, limit);
+
+        int pageSize = resolvePageSize(limit);
+        LocalDateTime from = parseTime(createdFrom, "createdFrom", MIN_CREATION_TIME);
+        LocalDateTime to = parseTime(createdTo, "createdTo", MAX_CREATION_TIME);
+        checkRange(from, to);
+        long afterId = 0L;
+        CursorCodec.TimeKey cursor = CursorCodec.decodeTimeKey(after);
+        if (cursor != null && !cursor.creationTime().isBefore(from)) {
+            from = cursor.creationTime();
+            afterId = cursor.id();
+        }
+        List<DeviceView> devices = deviceRepo.findPageCreatedBetweenAfter(from, to, afterId, Limit.of(pageSize + 1));
+        return toPage(devices, pageSize, last -> CursorCodec.encode(last.creationTime(), last.id()));
+    }
+
+    // Number of devices created per hour or day in [createdFrom, createdTo), counted by the database
+    @Transactional(readOnly = true)
+    public List<CreatedStatsDTO> countDevicesCreated(String bucket, String createdFrom, String createdTo) {
+        logger.debug("Called countDevicesCreated(String bucket, String createdFrom, String createdTo): {}, {}, {}",
+                bucket, createdFrom, createdTo);
+
+        TimeBucket timeBucket;
+        try {
+            timeBucket = TimeBucket.valueOf(bucket.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Bucket must be one of hour or day");
+        }
+        LocalDateTime from = parseTime(createdFrom, "createdFrom", MIN_CREATION_TIME);
+        LocalDateTime to = parseTime(createdTo, "createdTo", MAX_CREATION_TIME);
+        checkRange(from, to);
+        List<CreatedCount> counts = deviceRepo.countCreatedPerBucket(timeBucket, from, to);
+        List<CreatedStatsDTO> statistics = new ArrayList<CreatedStatsDTO>(counts.size());
+        for (CreatedCount count : counts) {
+            statistics.add(new CreatedStatsDTO(TimestampCodec.format(count.bucket()), count.count()));
+        }
+        return statistics;
+    }
+
+    private static LocalDateTime parseTime(String value, String parameter, LocalDateTime defaultValue) {
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return TimestampCodec.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidRequestException(parameter + " must be in the format yyyy-MM-dd'T'HH:mm:ss");
+        }
+    }
+
+    private static void checkRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new InvalidRequestException("createdFrom must be before createdTo");
+        }
+    }
+
+    // Streams every device to the sink without materializing the table, in id order
+    @Transactional(readOnly = true)
+    public void exportDevices(Consumer<DeviceView> sink) {
+        logger.debug("Called exportDevices()");
+
+        try (Stream<DeviceView> devices = deviceRepo.streamAllOrderById()) {
+            devices.forEach(sink);
+        }
+    }
+
+    // expectedVersion comes from If-Match; null updates unconditionally
     @Transactional
-    public DeviceResponseDTO updateDevice(Long id, DeviceRequestDTO dto) {
-        logger.info("Called updateDevice(Long id, DeviceRequestDTO dto): {}", dto);
+    public DeviceResponseDTO updateDevice(Long id, DeviceRequestDTO dto, Long expectedVersion) {
+        logger.debug("Called updateDevice(Long id, DeviceRequestDTO dto, Long expectedVersion): {}, {}", dto, expectedVersion);
 
         Device device = findDeviceById(id);
+        checkVersion(device, expectedVersion);
+        DeviceSnapshot before = DeviceSnapshot.of(device);
         updateDeviceFields(device, dto, true);
-        return deviceMapper.toResponseDTO(deviceRepo.save(device));
+        // The entity is managed, so no save() merge is needed; with @DynamicUpdate the flush
+        // writes only the changed columns and bumps the version now, so the response carries the new ETag
+        deviceRepo.flush();
+        eventPublisher.publishEvent(DeviceChangedEvent.updated(before, device));
+        return deviceMapper.toResponseDTO(device);
     }
 
     @Transactional
-    public DeviceResponseDTO updateDevicePartially(Long id, DeviceRequestDTO dto) {
-        logger.info("Called updateDevicePartially(Long id, DeviceRequestDTO dto): {}", dto);
+    public DeviceResponseDTO updateDevicePartially(Long id, DeviceRequestDTO dto, Long expectedVersion) {
+        logger.debug("Called updateDevicePartially(Long id, DeviceRequestDTO dto, Long expectedVersion): {}, {}", dto, expectedVersion);
 
         Device device = findDeviceById(id);
+        checkVersion(device, expectedVersion);
+        DeviceSnapshot before = DeviceSnapshot.of(device);
         updateDeviceFields(device, dto, false);
-        return deviceMapper.toResponseDTO(deviceRepo.save(device));
+        deviceRepo.flush();
+        eventPublisher.publishEvent(DeviceChangedEvent.updated(before, device));
+        return deviceMapper.toResponseDTO(device);
     }
 
+    // One DELETE; the row count decides the outcome, and the extra lookup only runs when a version check failed
     @Transactional
-    public void deleteDevice(Long id) {
-        logger.info("Called deleteDevice(Long id): {}", id);
+    public void deleteDevice(Long id, Long expectedVersion) {
+        logger.debug("Called deleteDevice(Long id, Long expectedVersion): {}, {}", id, expectedVersion);
 
-        findDeviceById(id); // Ensure the device exists before attempting to delete
-        deviceRepo.deleteById(id);
+        if (!deviceIdFilter.mightExist(id)) {
+            throw notFound(id);
+        }
+        List<DeviceView> deleted = deviceRepo.deleteByIdReturning(id, expectedVersion);
+        if (deleted.isEmpty()) {
+            if (expectedVersion != null && deviceRepo.existsById(id)) {
+                throw new PreconditionFailedException("Device " + id + " is not at version " + expectedVersion);
+            }
+            throw notFound(id);
+        }
+        publishDeleted(deleted);
     }
 
-    public List<DeviceResponseDTO> searchDeviceByBrand(String brand) {
-        logger.info("Called searchDeviceByBrand(String brand): {}", brand);
+    // Bulk deletes run one set-based statement and return how many devices were removed
+    @Transactional
+    public long deleteDevices(List<Long> ids) {
+        logger.debug("Called deleteDevices(List<Long> ids): {} ids", ids.size());
 
-        List<Device> devices = deviceRepo.findByBrand(brand);
-        List<DeviceResponseDTO> responseDTOs = new ArrayList<DeviceResponseDTO>();
-        for (Device device : devices) {
-            responseDTOs.add(deviceMapper.toResponseDTO(device));
+        if (ids.size() > properties.getBulk().getMaxItems()) {
+            throw new InvalidRequestException("At most " + properties.getBulk().getMaxItems() + " ids can be deleted per request");
+        }
+        List<DeviceView> deleted = deviceRepo.deleteAllByIdReturning(ids);
+        publishDeleted(deleted);
+        return deleted.size();
+    }
+
+    // One chunk of a brand-wide delete, at most max devices in one statement; DeviceBulkService repeats it
+    @Transactional
+    public long deleteDevicesByBrand(String brand, int max) {
+        logger.debug("Called deleteDevicesByBrand(String brand, int max): {}, {}", brand, max);
+
+        List<DeviceView> deleted = deviceRepo.deleteAllByBrandKeyReturning(Device.toBrandKey(brand), max);
+        publishDeleted(deleted);
+        return deleted.size();
+    }
+
+    // Bulk patches apply the non-null fields of the DTO to every matching device in one UPDATE
+    @Transactional
+    public long patchDevices(List<Long> ids, DeviceRequestDTO dto) {
+        logger.debug("Called patchDevices(List<Long> ids, DeviceRequestDTO dto): {} ids", ids.size());
+
+        if (ids.size() > properties.getBulk().getMaxItems()) {
+            throw new InvalidRequestException("At most " + properties.getBulk().getMaxItems() + " ids can be updated per request");
+        }
+        DevicePatch patch = toPatch(dto);
+        return publishPatched(deviceRepo.patchAllByIdReturning(ids, patch), patch);
+    }
+
+    // One chunk of a brand-wide patch, at most max devices with ids above afterId; returns them as they were before,
+    // so DeviceBulkService can continue after the last one
+    @Transactional
+    public List<DeviceView> patchDevicesByBrand(String brand, DeviceRequestDTO dto, long afterId, int max) {
+        logger.debug("Called patchDevicesByBrand(String brand, DeviceRequestDTO dto, long afterId, int max): {}, {}, {}",
+                brand, afterId, max);
+
+        DevicePatch patch = toPatch(dto);
+        List<DeviceView> patched = deviceRepo.patchAllByBrandKeyReturning(Device.toBrandKey(brand), afterId, max, patch);
+        publishPatched(patched, patch);
+        return patched;
+    }
+
+    private DevicePatch toPatch(DeviceRequestDTO dto) {
+        if ((dto.getName() != null && dto.getName().isBlank()) || (dto.getBrand() != null && dto.getBrand().isBlank())) {
+            throw new InvalidRequestException("Name and brand cannot be blank");
+        }
+        LocalDateTime creationTime = null;
+        if (dto.getCreationTime() != null && !dto.getCreationTime().isEmpty()) {
+            try {
+                creationTime = TimestampCodec.parse(dto.getCreationTime());
+            } catch (DateTimeParseException e) {
+                throw new InvalidRequestException("Creation time must be in the format yyyy-MM-dd'T'HH:mm:ss");
+            }
+        }
+        DevicePatch patch = new DevicePatch(dto.getName(), dto.getBrand(), creationTime);
+        if (patch.isEmpty()) {
+            throw new InvalidRequestException("At least one of name, brand or creationTime is required");
+        }
+        return patch;
+    }
+
+    // The after-state is derived from the returned before-state, so no row is read back; the statement bumped each version
+    private long publishPatched(List<DeviceView> patched, DevicePatch patch) {
+        for (DeviceView before : patched) {
+            DeviceSnapshot after = new DeviceSnapshot(before.id(),
+                    patch.name() != null ? patch.name() : before.name(),
+                    patch.brand() != null ? patch.brand() : before.brand(),
+                    patch.creationTime() != null ? patch.creationTime() : before.creationTime(),
+                    before.version() + 1);
+            eventPublisher.publishEvent(DeviceChangedEvent.updated(DeviceSnapshot.of(before), after));
+        }
+        return patched.size();
+    }
+
+    // Listeners evict the cache entries and update the brand index once the transaction commits
+    private void publishDeleted(List<DeviceView> deleted) {
+        for (DeviceView device : deleted) {
+            eventPublisher.publishEvent(DeviceChangedEvent.deleted(DeviceSnapshot.of(device)));
+        }
+    }
+
+    // Case-insensitive; with prefix=true every brand starting with the given text matches
+    @Transactional(readOnly = true)
+    public DevicePageDTO searchDeviceByBrand(String brand, boolean prefix, String after, Integer limit) {
+        logger.debug("Called searchDeviceByBrand(String brand, boolean prefix, String after, Integer limit): {}, {}, {}, {}",
+                brand, prefix, after, limit);
+
+        int pageSize = resolvePageSize(limit);
+        long afterId = CursorCodec.decode(after);
+        String brandKey = Device.toBrandKey(brand);
+        List<DeviceView> devices = prefix
+                ? deviceRepo.findPageByBrandKeyLikeAfter(escapeLike(brandKey) + "%", afterId, Limit.of(pageSize + 1))
+                : deviceRepo.findPageByBrandKeyAfter(brandKey, afterId, Limit.of(pageSize + 1));
+        return toPage(devices, pageSize);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return properties.getPagination().getDefaultLimit();
+        }
+        if (limit < 1) {
+            throw new InvalidRequestException("Limit must be at least 1");
+        }
+        return Math.min(limit, properties.getPagination().getMaxLimit());
+    }
+
+    // One extra row is fetched so the last page is detected without another round trip
+    private DevicePageDTO toPage(List<DeviceView> devices, int pageSize) {
+        return toPage(devices, pageSize, last -> CursorCodec.encode(last.id()));
+    }
+
+    // The rows are returned as they are, DeviceViewSerializer writes them in the DeviceResponseDTO shape
+    private DevicePageDTO toPage(List<DeviceView> devices, int pageSize, Function<DeviceView, String> cursor) {
+        if (devices.size() <= pageSize) {
+            return new DevicePageDTO(devices, null);
+        }
+        List<DeviceView> page = devices.subList(0, pageSize);
+        return new DevicePageDTO(page, cursor.apply(page.get(pageSize - 1)));
+    }
+
+    private void checkVersion(Device device, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(device.getVersion())) {
+            throw new PreconditionFailedException("Device " + device.getId() + " is at version " + device.getVersion()
+                    + ", not " + expectedVersion);
         }
-        return responseDTOs;
     }
 
     private Device findDeviceById(Long id) {
-        logger.info("Called findDeviceById(Long id): {}", id);
-        return deviceRepo.findById(id).orElseThrow(() -> new ResourceNotFoundException("Device not found with id: " + id));
+        logger.debug("Called findDeviceById(Long id): {}", id);
+        if (!deviceIdFilter.mightExist(id)) {
+            throw notFound(id);
+        }
+        return deviceRepo.findById(id).orElseThrow(() -> notFound(id));
+    }
+
+    private static ResourceNotFoundException notFound(Long id) {
+        return new ResourceNotFoundException("Device not found with id: " + id);
     }
 
-    private void updateDeviceFields(Device device, DeviceRequestDTO dto, boolean isFullUpdate) {
-        logger.info("Called updateDeviceFields: {}", device);
+    // Package-private for DeviceServiceBenchmark
+    void updateDeviceFields(Device device, DeviceRequestDTO dto, boolean isFullUpdate) {
+        logger.debug("Called updateDeviceFields: {}", device.getId());
 
         if (dto.getName() != null) {
             device.setName(dto.getName());
@@ -111,7 +436,7 @@ public class DeviceService {
         }
 
         if (dto.getCreationTime() != null && !dto.getCreationTime().isEmpty()) {
-            LocalDateTime parsedCreationTime = LocalDateTime.parse(dto.getCreationTime(), FORMATTER);
+            LocalDateTime parsedCreationTime = TimestampCodec.parse(dto.getCreationTime());
             device.setCreationTime(parsedCreationTime);
         } else if (isFullUpdate) {
             device.setCreationTime(LocalDateTime.now());
@@ -0,0 +1,392 @@
+package com.challenge.burcakkocak.service;
+
+import com.challenge.burcakkocak.config.DeviceProperties;
+import com.challenge.burcakkocak.entity.dto.DevicePageDTO;
+import com.challenge.burcakkocak.event.DeviceChangedEvent;
+import com.challenge.burcakkocak.event.DeviceSnapshot;
+import com.challenge.burcakkocak.exception.InvalidRequestException;
+import com.challenge.burcakkocak.mapper.CursorCodec;
+import com.challenge.burcakkocak.repo.DeviceStore;
+import com.challenge.burcakkocak.repo.DeviceView;
+import com.challenge.burcakkocak.repo.SortedLongArray;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory inverted index from the trigrams of each device's name and brand to the ids of the devices containing them,
+ * for fuzzy text search. Text is lower-cased and split into words, and each word is padded with two spaces in front and
+ * one behind: "S24" gives "  s", " s2", "s24" and "24 ", so prefixes and misspelled words still share trigrams.
+ * A device matches when it contains at least device.text-search.min-similarity of the query's trigrams. Matches are
+ * ranked by that share, then by how few other trigrams the device has, so closer texts come first, then by id.
+ * Loaded before the server accepts requests, then kept current from committed device changes.
+ */
+@Component
+public class DeviceTextIndex implements SmartInitializingSingleton {
+
+    static final int MAX_QUERY_LENGTH = 200;
+    private static final int LOAD_PAGE_SIZE = 10000;
+
+    // The indexed row and the number of distinct trigrams in its text
+    private record Document(DeviceView device, int trigrams) {
+    }
+
+    // The best matches seen so far, at most capacity of them, in a heap with the worst on top, so a candidate that
+    // does not beat it is dropped without allocating. Ranked by the most shared trigrams first, then the fewest
+    // trigrams that are not in the query, then the lowest id
+    private static final class TopMatches {
+        private final long[] ids;
+        private final int[] matched;
+        private final int[] extra;
+        private final Document[] documents;
+        private int size;
+
+        TopMatches(int capacity) {
+            ids = new long[capacity];
+            matched = new int[capacity];
+            extra = new int[capacity];
+            documents = new Document[capacity];
+        }
+
+        // The document is only looked up for candidates that share at least as many trigrams as the worst kept one
+        void offer(long id, int matchedTrigrams, Map<Long, Document> index) {
+            boolean full = size == ids.length;
+            if (full && matchedTrigrams < matched[0]) {
+                return;
+            }
+            Document document = index.get(id);
+            int extraTrigrams = document.trigrams() - matchedTrigrams;
+            if (!full) {
+                set(size, id, matchedTrigrams, extraTrigrams, document);
+                siftUp(size++);
+            } else if (worse(ids[0], matched[0], extra[0], id, matchedTrigrams, extraTrigrams)) {
+                set(0, id, matchedTrigrams, extraTrigrams, document);
+                siftDown(0);
+            }
+        }
+
+        // Empties the heap into an array, best match first
+        Document[] drain() {
+            Document[] ranked = new Document[size];
+            while (size > 0) {
+                ranked[size - 1] = documents[0];
+                swap(0, --size);
+                siftDown(0);
+            }
+            return ranked;
+        }
+
+        private static boolean worse(long id, int matched, int extra, long otherId, int otherMatched, int otherExtra) {
+            if (matched != otherMatched) {
+                return matched < otherMatched;
+            }
+            if (extra != otherExtra) {
+                return extra > otherExtra;
+            }
+            return id > otherId;
+        }
+
+        private boolean worse(int i, int j) {
+            return worse(ids[i], matched[i], extra[i], ids[j], matched[j], extra[j]);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (!worse(index, parent)) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int worst = index;
+                for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                    if (worse(child, worst)) {
+                        worst = child;
+                    }
+                }
+                if (worst == index) {
+                    return;
+                }
+                swap(worst, index);
+                index = worst;
+            }
+        }
+
+        private void set(int index, long id, int matchedTrigrams, int extraTrigrams, Document document) {
+            ids[index] = id;
+            matched[index] = matchedTrigrams;
+            extra[index] = extraTrigrams;
+            documents[index] = document;
+        }
+
+        private void swap(int i, int j) {
+            long id = ids[i];
+            int matchedTrigrams = matched[i];
+            int extraTrigrams = extra[i];
+            Document document = documents[i];
+            set(i, ids[j], matched[j], extra[j], documents[j]);
+            set(j, id, matchedTrigrams, extraTrigrams, document);
+        }
+    }
+
+    private final DeviceStore deviceRepo;
+    private final DeviceProperties properties;
+    private final Map<Long, SortedLongArray> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private static final Logger logger = LoggerFactory.getLogger(DeviceTextIndex.class);
+
+    public DeviceTextIndex(DeviceStore deviceRepo, DeviceProperties properties) {
+        this.deviceRepo = deviceRepo;
+        this.properties = properties;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        long after = 0L;
+        List<DeviceView> page;
+        do {
+            page = deviceRepo.findPageAfter(after, Limit.of(LOAD_PAGE_SIZE));
+            lock.writeLock().lock();
+            try {
+                for (DeviceView device : page) {
+                    add(device);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            after = page.isEmpty() ? after : page.get(page.size() - 1).id();
+        } while (page.size() == LOAD_PAGE_SIZE);
+        logger.info("Indexed {} devices under {} trigrams in {} ms", documents.size(), postings.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        DeviceSnapshot after = event.after();
+        lock.writeLock().lock();
+        try {
+            Document current = documents.get(event.id());
+            if (current != null && after != null && current.device().name().equals(after.name())
+                    && current.device().brand().equals(after.brand())) {
+                // Same text: only the row returned in results changes
+                documents.put(after.id(), new Document(toView(after), current.trigrams()));
+                return;
+            }
+            if (current != null) {
+                remove(current.device());
+            }
+            if (after != null) {
+                add(toView(after));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ranked matches for the query, pageSize at a time; the cursor is the position in the ranking
+    public DevicePageDTO search(String query, String after, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidRequestException("Query q is required");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new InvalidRequestException("Query q can be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+        int pageSize = resolvePageSize(limit);
+        long offset = CursorCodec.decode(after);
+        if (offset < 0) {
+            throw new InvalidRequestException("Invalid cursor: " + after);
+        }
+        long[] trigrams = trigrams(query);
+        int minMatched = Math.max(1, (int) Math.ceil(properties.getTextSearch().getMinSimilarity() * trigrams.length));
+
+        Document[] ranked;
+        lock.readLock().lock();
+        try {
+            // Only the matches up to the end of this page are ranked, plus one to tell whether another page follows
+            TopMatches top = new TopMatches((int) Math.min(offset, documents.size()) + pageSize + 1);
+            match(trigrams, minMatched, top);
+            ranked = top.drain();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int from = (int) Math.min(offset, ranked.length);
+        int to = Math.min(from + pageSize, ranked.length);
+        List<DeviceView> devices = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            devices.add(ranked[i].device());
+        }
+        return new DevicePageDTO(devices, to < ranked.length ? CursorCodec.encode(to) : null);
+    }
+
+    // Merges the posting lists of the query's trigrams in id order, counts in how many of them each id appears and
+    // offers the ids with at least minMatched to top
+    private void match(long[] trigrams, int minMatched, TopMatches top) {
+        List<SortedLongArray> lists = new ArrayList<>(trigrams.length);
+        for (long trigram : trigrams) {
+            SortedLongArray list = postings.get(trigram);
+            if (list != null) {
+                lists.add(list);
+            }
+        }
+        if (lists.size() < minMatched) {
+            return;
+        }
+        int[] positions = new int[lists.size()];
+        // Min-heap of list indexes, ordered by the id at each list's position
+        int[] heap = new int[lists.size()];
+        int heapSize = 0;
+        for (int i = 0; i < lists.size(); i++) {
+            heap[heapSize++] = i;
+            siftUp(heap, heapSize - 1, lists, positions);
+        }
+        while (heapSize > 0) {
+            long id = head(heap[0], lists, positions);
+            int matched = 0;
+            while (heapSize > 0 && head(heap[0], lists, positions) == id) {
+                int list = heap[0];
+                matched++;
+                if (++positions[list] == lists.get(list).size()) {
+                    heap[0] = heap[--heapSize];
+                }
+                siftDown(heap, heapSize, lists, positions);
+            }
+            if (matched >= minMatched) {
+                top.offer(id, matched, documents);
+            }
+        }
+    }
+
+    private static long head(int list, List<SortedLongArray> lists, int[] positions) {
+        return lists.get(list).get(positions[list]);
+    }
+
+    private static void siftUp(int[] heap, int index, List<SortedLongArray> lists, int[] positions) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (head(heap[parent], lists, positions) <= head(heap[index], lists, positions)) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int heapSize, List<SortedLongArray> lists, int[] positions) {
+        int index = 0;
+        while (true) {
+            int smallest = index;
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < heapSize; child++) {
+                if (head(heap[child], lists, positions) < head(heap[smallest], lists, positions)) {
+                    smallest = child;
+                }
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(heap, smallest, index);
+            index = smallest;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int value = heap[i];
+        heap[i] = heap[j];
+        heap[j] = value;
+    }
+
+    private void add(DeviceView device) {
+        long[] trigrams = trigrams(device.name() + " " + device.brand());
+        for (long trigram : trigrams) {
+            postings.computeIfAbsent(trigram, key -> new SortedLongArray(2)).add(device.id());
+        }
+        documents.put(device.id(), new Document(device, trigrams.length));
+    }
+
+    // The trigrams are derived again from the indexed text instead of being kept per device
+    private void remove(DeviceView device) {
+        for (long trigram : trigrams(device.name() + " " + device.brand())) {
+            SortedLongArray list = postings.get(trigram);
+            if (list != null) {
+                list.remove(device.id());
+                if (list.size() == 0) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+        documents.remove(device.id());
+    }
+
+    // Distinct trigrams of the padded, lower-cased words, each packed into a long, in ascending order
+    static long[] trigrams(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        long[] trigrams = new long[lower.length() * 2 + 2];
+        int count = 0;
+        int i = 0;
+        while (i < lower.length()) {
+            if (!Character.isLetterOrDigit(lower.charAt(i))) {
+                i++;
+                continue;
+            }
+            int end = i;
+            while (end < lower.length() && Character.isLetterOrDigit(lower.charAt(end))) {
+                end++;
+            }
+            // Positions i - 2 and i - 1 are the leading spaces, end the trailing one
+            for (int position = i - 2; position < end - 1; position++) {
+                if (count == trigrams.length) {
+                    trigrams = Arrays.copyOf(trigrams, count * 2);
+                }
+                trigrams[count++] = ((long) charAt(lower, position, i, end) << 32)
+                        | ((long) charAt(lower, position + 1, i, end) << 16)
+                        | charAt(lower, position + 2, i, end);
+            }
+            i = end;
+        }
+        Arrays.sort(trigrams, 0, count);
+        int distinct = 0;
+        for (int j = 0; j < count; j++) {
+            if (distinct == 0 || trigrams[j] != trigrams[distinct - 1]) {
+                trigrams[distinct++] = trigrams[j];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    private static char charAt(String text, int position, int wordStart, int wordEnd) {
+        return position < wordStart || position >= wordEnd ? ' ' : text.charAt(position);
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return properties.getPagination().getDefaultLimit();
+        }
+        if (limit < 1) {
+            throw new InvalidRequestException("Limit must be at least 1");
+        }
+        return Math.min(limit, properties.getPagination().getMaxLimit());
+    }
+
+    private static DeviceView toView(DeviceSnapshot snapshot) {
+        return new DeviceView(snapshot.id(), snapshot.name(), snapshot.brand(), snapshot.creationTime(), snapshot.version());
+    }
+}
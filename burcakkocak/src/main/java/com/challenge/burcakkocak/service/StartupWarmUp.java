@@ -0,0 +1,86 @@
+package com.challenge.burcakkocak.service;
+
+import com.challenge.burcakkocak.config.DeviceProperties;
+import com.challenge.burcakkocak.entity.Device;
+import com.challenge.burcakkocak.repo.DeviceStore;
+import com.challenge.burcakkocak.repo.DeviceView;
+import com.challenge.burcakkocak.repo.TimeBucket;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the read queries before the application reports ready, so the first requests after a restart do not pay for
+ * query plan compilation, JIT and a cold database page cache. Logs the startup and warm-up time once ready.
+ */
+@Component
+public class StartupWarmUp implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmUp.class);
+
+    private final DeviceStore deviceRepo;
+    private final DeviceProperties properties;
+    private Duration startupTime;
+    private Duration warmUpTime = Duration.ZERO;
+    private long devices;
+
+    public StartupWarmUp(DeviceStore deviceRepo, DeviceProperties properties) {
+        this.deviceRepo = deviceRepo;
+        this.properties = properties;
+    }
+
+    @EventListener
+    public void onStarted(ApplicationStartedEvent event) {
+        startupTime = event.getTimeTaken();
+    }
+
+    // Application runners are called after the context has started and before ApplicationReadyEvent. A failing
+    // warm-up is logged and cut short: it only makes the first requests faster, so it must not stop the start
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        try {
+            devices = deviceRepo.count();
+            if (properties.getWarmUp().isEnabled() && devices > 0) {
+                for (int i = 0; i < properties.getWarmUp().getIterations(); i++) {
+                    warmUp();
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Warm-up failed, starting without it", e);
+        }
+        warmUpTime = Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    // Small pages and a one-second window: the point is compiling the statements, not reading the table
+    private void warmUp() {
+        List<DeviceView> page = deviceRepo.findPageAfter(0L, Limit.of(50));
+        if (page.isEmpty()) {
+            return;
+        }
+        DeviceView first = page.get(0);
+        deviceRepo.findViewById(first.id());
+        deviceRepo.findPageByBrandKeyAfter(Device.toBrandKey(first.brand()), 0L, Limit.of(50));
+        // creation_time is nullable, and rows from before it was always set may have none
+        if (first.creationTime() != null) {
+            deviceRepo.findPageCreatedBetweenAfter(first.creationTime(), first.creationTime().plusSeconds(1), 0L, Limit.of(50));
+            deviceRepo.countCreatedPerBucket(TimeBucket.HOUR, first.creationTime(), first.creationTime().plusSeconds(1));
+        }
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        logger.info("Ready in {} ms: startup {} ms, warm-up {} ms, {} devices in store",
+                event.getTimeTaken().toMillis(), startupTime == null ? -1 : startupTime.toMillis(), warmUpTime.toMillis(), devices);
+    }
+}
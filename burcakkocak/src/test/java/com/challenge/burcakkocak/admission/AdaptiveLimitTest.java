@@ -0,0 +1,66 @@
+package com.challenge.burcakkocak.admission;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.challenge.burcakkocak.config.DeviceProperties;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+class AdaptiveLimitTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AdaptiveLimit limit = new AdaptiveLimit(
+            new DeviceProperties.Admission.Limit(4, 2, 6, Duration.ofMillis(100)), 0.5, 0);
+
+    @Test
+    void Given_LimitReached_When_TryAcquire_Then_RejectUntilReleased() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+
+        assertFalse(limit.tryAcquire());
+        limit.release(10 * MS, 20 * MS, false);
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    void Given_FastRequestsUnderLoad_When_Released_Then_IncreaseUpToMax() {
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < 3; j++) {
+                limit.tryAcquire();
+            }
+            for (int j = 0; j < 3; j++) {
+                limit.release(10 * MS, 20 * MS, false);
+            }
+        }
+
+        assertEquals(6, limit.getLimit());
+    }
+
+    @Test
+    void Given_FastRequestsWhileIdle_When_Released_Then_KeepLimit() {
+        limit.tryAcquire();
+        limit.release(10 * MS, 20 * MS, false);
+
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    void Given_SlowRequestsInFlightTogether_When_Released_Then_DecreaseOncePerRoundTrip() {
+        for (int i = 0; i < 4; i++) {
+            limit.tryAcquire();
+        }
+        for (int i = 0; i < 4; i++) {
+            limit.release(10 * MS, 500 * MS, false);
+        }
+        assertEquals(2, limit.getLimit());
+
+        limit.tryAcquire();
+        limit.release(600 * MS, 610 * MS, true);
+        assertEquals(2, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+}
@@ -0,0 +1,108 @@
+package com.challenge.burcakkocak.admission;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.challenge.burcakkocak.config.DeviceProperties;
+import com.challenge.burcakkocak.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+import java.util.Locale;
+
+class AdmissionControlInterceptorTest {
+
+    static class Handlers {
+        @AdmissionControlled(AdmissionControlled.Budget.READ)
+        public void read() {
+        }
+
+        @AdmissionControlled(AdmissionControlled.Budget.WRITE)
+        public void write() {
+        }
+
+        @AdmissionControlled(AdmissionControlled.Budget.BULK)
+        public void bulk() {
+        }
+
+        public void unlimited() {
+        }
+    }
+
+    private final DeviceProperties properties = new DeviceProperties();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AdmissionControlInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        properties.getAdmission().getReads().setInitialLimit(2);
+        properties.getAdmission().getReads().setMinLimit(1);
+        properties.getAdmission().getReads().setLatencyThreshold(Duration.ofMinutes(1));
+        interceptor = new AdmissionControlInterceptor(properties, meterRegistry);
+    }
+
+    @Test
+    void Given_ReadBudgetExhausted_When_PreHandle_Then_RejectReadsButAdmitWrites() throws NoSuchMethodException {
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler("read")));
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler("read")));
+
+        assertThrows(ServiceOverloadedException.class,
+                () -> interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler("read")));
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler("write")));
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler("unlimited")));
+        assertEquals(1.0, meterRegistry.get("device.admission.rejected").tag("budget", "read").counter().count());
+        assertEquals(2.0, meterRegistry.get("device.admission.inflight").tag("budget", "read").gauge().value());
+    }
+
+    @Test
+    void Given_ServerError_When_RequestCompletes_Then_ReleaseAndLowerTheLimit() throws NoSuchMethodException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, handler("read"));
+        response.setStatus(500);
+
+        interceptor.afterCompletion(request, response, handler("read"), null);
+        interceptor.afterCompletion(request, response, handler("read"), null);
+
+        assertEquals(1, interceptor.getLimit(AdmissionControlled.Budget.READ));
+        assertEquals(0.0, meterRegistry.get("device.admission.inflight").tag("budget", "read").gauge().value());
+    }
+
+    @Test
+    void Given_FailingBulkRequests_When_RequestsComplete_Then_LowerOnlyTheBulkLimit() throws NoSuchMethodException {
+        properties.getAdmission().getBulk().setInitialLimit(4);
+        interceptor = new AdmissionControlInterceptor(properties, meterRegistry);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, handler("bulk"));
+        response.setStatus(500);
+
+        interceptor.afterCompletion(request, response, handler("bulk"), null);
+
+        assertEquals(3, interceptor.getLimit(AdmissionControlled.Budget.BULK));
+        assertEquals(10, interceptor.getLimit(AdmissionControlled.Budget.WRITE));
+    }
+
+    @Test
+    void Given_TurkishDefaultLocale_When_Created_Then_TagBudgetsInLowerCaseAscii() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            MeterRegistry registry = new SimpleMeterRegistry();
+            new AdmissionControlInterceptor(properties, registry);
+
+            assertNotNull(registry.find("device.admission.limit").tag("budget", "write").gauge());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), Handlers.class.getMethod(name));
+    }
+}
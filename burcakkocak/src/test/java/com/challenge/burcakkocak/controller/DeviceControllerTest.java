@@ -5,23 +5,72 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.challenge.burcakkocak.entity.dto.BrandStatsDTO;
+import com.challenge.burcakkocak.entity.dto.CreatedStatsDTO;
+import com.challenge.burcakkocak.entity.dto.DeviceBulkResultDTO;
+import com.challenge.burcakkocak.entity.dto.DeviceDeleteResultDTO;
+import com.challenge.burcakkocak.entity.dto.DevicePageDTO;
 import com.challenge.burcakkocak.entity.dto.DeviceRequestDTO;
 import com.challenge.burcakkocak.entity.dto.DeviceResponseDTO;
+import com.challenge.burcakkocak.entity.dto.DeviceUpdateResultDTO;
+import com.challenge.burcakkocak.entity.dto.IngestStatusDTO;
+import com.challenge.burcakkocak.exception.InvalidRequestException;
+import com.challenge.burcakkocak.exception.PreconditionFailedException;
+import com.challenge.burcakkocak.repo.DeviceView;
+import com.challenge.burcakkocak.service.BrandStatistics;
+import com.challenge.burcakkocak.service.BrandSuggestionIndex;
+import com.challenge.burcakkocak.service.DeviceBulkService;
+import com.challenge.burcakkocak.service.DeviceChangeFeed;
+import com.challenge.burcakkocak.service.DeviceIngestPipeline;
 import com.challenge.burcakkocak.service.DeviceService;
+import com.challenge.burcakkocak.service.DeviceTextIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 class DeviceControllerTest {
 
     @Mock
     private DeviceService deviceService;
 
+    @Mock
+    private DeviceBulkService deviceBulkService;
+
+    @Mock
+    private BrandSuggestionIndex brandSuggestionIndex;
+
+    @Mock
+    private BrandStatistics brandStatistics;
+
+    @Mock
+    private DeviceChangeFeed deviceChangeFeed;
+
+    @Mock
+    private DeviceIngestPipeline deviceIngestPipeline;
+
+    @Mock
+    private DeviceTextIndex deviceTextIndex;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private DeviceController deviceController;
 
@@ -63,38 +112,120 @@ class DeviceControllerTest {
 
         when(deviceService.getDeviceById(deviceId)).thenReturn(responseDTO);
 
-        ResponseEntity<DeviceResponseDTO> response = deviceController.getDeviceById(deviceId);
+        ResponseEntity<DeviceResponseDTO> response = deviceController.getDeviceById(deviceId, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(deviceId, response.getBody().getId());
+        verify(deviceService, times(1)).getDeviceById(deviceId);
+    }
+
+    @Test
+    void Given_MatchingIfNoneMatch_When_GetDeviceById_Then_ReturnNotModified() {
+        DeviceResponseDTO responseDTO = new DeviceResponseDTO();
+        responseDTO.setId(1L);
+        responseDTO.setVersion(3L);
+
+        when(deviceService.getDeviceById(1L)).thenReturn(responseDTO);
+
+        ResponseEntity<DeviceResponseDTO> response = deviceController.getDeviceById(1L, "W/\"2\", \"3\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+
+        ResponseEntity<DeviceResponseDTO> changed = deviceController.getDeviceById(1L, "\"2\"");
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertEquals("\"3\"", changed.getHeaders().getETag());
+    }
+
+    @Test
+    void Given_UnchangedPage_When_GetAllDevices_Then_ReturnNotModified() {
+        DevicePageDTO page = new DevicePageDTO(Arrays.asList(view(1L, 0L)), null);
+
+        when(deviceService.getAllDevices(null, null)).thenReturn(page);
+
+        ResponseEntity<DevicePageDTO> response = deviceController.getAllDevices(null, null, null, null, null);
+        String etag = response.getHeaders().getETag();
+        assertTrue(etag.startsWith("W/"));
+        assertEquals(List.of("Accept"), response.getHeaders().getVary());
+        assertEquals(HttpStatus.NOT_MODIFIED, deviceController.getAllDevices(null, null, null, null, etag).getStatusCode());
+
+        page.setDevices(Arrays.asList(view(1L, 1L)));
+        assertEquals(HttpStatus.OK, deviceController.getAllDevices(null, null, null, null, etag).getStatusCode());
+    }
+
+    @Test
+    void Given_IfMatch_When_UpdateDevice_Then_PassExpectedVersionAndReturnNewETag() {
+        DeviceRequestDTO requestDTO = new DeviceRequestDTO();
+        DeviceResponseDTO responseDTO = new DeviceResponseDTO();
+        responseDTO.setVersion(5L);
+
+        when(deviceService.updateDevicePartially(1L, requestDTO, 4L)).thenReturn(responseDTO);
+
+        ResponseEntity<DeviceResponseDTO> response = deviceController.updateDevicePartially(1L, requestDTO, "\"4\"");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"5\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void Given_WeakOrMalformedIfMatch_When_DeleteDevice_Then_ThrowPreconditionFailed() {
+        assertThrows(PreconditionFailedException.class, () -> deviceController.deleteDevice(1L, "W/\"4\""));
+        assertThrows(PreconditionFailedException.class, () -> deviceController.deleteDevice(1L, "\"abc\""));
+        deviceController.deleteDevice(1L, "*");
+
+        verify(deviceService, times(1)).deleteDevice(1L, null);
     }
 
     @Test
     void When_GetAllDevices_Expect_ListOfDeviceResponseDTO() {
-        List<DeviceResponseDTO> devices = Arrays.asList(
-                new DeviceResponseDTO(),
-                new DeviceResponseDTO()
-        );
+        List<DeviceView> devices = Arrays.asList(view(1L, 0L), view(2L, 0L));
 
-        when(deviceService.getAllDevices()).thenReturn(devices);
+        when(deviceService.getAllDevices(null, null)).thenReturn(new DevicePageDTO(devices, "Mg"));
 
-        ResponseEntity<List<DeviceResponseDTO>> response = deviceController.getAllDevices();
+        ResponseEntity<DevicePageDTO> response = deviceController.getAllDevices(null, null, null, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(2, response.getBody().size());
+        assertEquals(2, response.getBody().getDevices().size());
+        assertEquals("Mg", response.getBody().getNextCursor());
     }
 
     @Test
     void Given_NoDevices_When_GetAllDevices_Then_ReturnNoContent() {
-        when(deviceService.getAllDevices()).thenReturn(Arrays.asList());
+        when(deviceService.getAllDevices(null, null)).thenReturn(new DevicePageDTO(Arrays.asList(), null));
 
-        ResponseEntity<List<DeviceResponseDTO>> response = deviceController.getAllDevices();
+        ResponseEntity<DevicePageDTO> response = deviceController.getAllDevices(null, null, null, null, null);
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
     }
 
+    @Test
+    void Given_CursorAndLimit_When_GetAllDevices_Then_PassThemToService() {
+        List<DeviceView> devices = Arrays.asList(view(1L, 0L));
+        when(deviceService.getAllDevices("Mg", 1)).thenReturn(new DevicePageDTO(devices, null));
+
+        ResponseEntity<DevicePageDTO> response = deviceController.getAllDevices("Mg", 1, null, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getBody().getNextCursor());
+        verify(deviceService, times(1)).getAllDevices("Mg", 1);
+    }
+
+    @Test
+    void Given_CreatedRange_When_GetAllDevices_Then_ListDevicesCreatedBetween() {
+        List<DeviceView> devices = Arrays.asList(view(1L, 0L));
+        when(deviceService.getDevicesCreatedBetween("2024-01-01T00:00:00", null, null, 10))
+                .thenReturn(new DevicePageDTO(devices, null));
+
+        ResponseEntity<DevicePageDTO> response = deviceController.getAllDevices(null, 10, "2024-01-01T00:00:00", null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().getDevices().size());
+        verify(deviceService, never()).getAllDevices(any(), any());
+    }
+
     @Test
     void Should_ReturnUpdatedDeviceResponseDTO_When_UpdateDevice() {
         Long deviceId = 1L;
@@ -109,9 +240,9 @@ class DeviceControllerTest {
         responseDTO.setBrand("Updated Brand");
         responseDTO.setCreationTime("2024-09-19T11:00:00");
 
-        when(deviceService.updateDevice(deviceId, requestDTO)).thenReturn(responseDTO);
+        when(deviceService.updateDevice(deviceId, requestDTO, null)).thenReturn(responseDTO);
 
-        ResponseEntity<DeviceResponseDTO> response = deviceController.updateDevice(deviceId, requestDTO);
+        ResponseEntity<DeviceResponseDTO> response = deviceController.updateDevice(deviceId, requestDTO, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -130,9 +261,9 @@ class DeviceControllerTest {
         responseDTO.setBrand("Existing Brand");
         responseDTO.setCreationTime("2024-09-19T10:00:00");
 
-        when(deviceService.updateDevicePartially(deviceId, requestDTO)).thenReturn(responseDTO);
+        when(deviceService.updateDevicePartially(deviceId, requestDTO, null)).thenReturn(responseDTO);
 
-        ResponseEntity<DeviceResponseDTO> response = deviceController.updateDevicePartially(deviceId, requestDTO);
+        ResponseEntity<DeviceResponseDTO> response = deviceController.updateDevicePartially(deviceId, requestDTO, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -143,35 +274,233 @@ class DeviceControllerTest {
     void Given_DeviceExists_When_DeleteDevice_Then_MethodIsCalled() {
         Long deviceId = 1L;
 
-        deviceController.deleteDevice(deviceId);
+        deviceController.deleteDevice(deviceId, null);
+
+        verify(deviceService, times(1)).deleteDevice(deviceId, null);
+    }
+
+    @Test
+    void Given_IdsOrBrand_When_DeleteDevices_Then_DeletedCountIsReturned() {
+        when(deviceService.deleteDevices(Arrays.asList(1L, 2L))).thenReturn(2L);
+        when(deviceBulkService.deleteDevicesByBrand("Apple")).thenReturn(5L);
+
+        ResponseEntity<DeviceDeleteResultDTO> byIds = deviceController.deleteDevices(Arrays.asList(1L, 2L), null);
+        ResponseEntity<DeviceDeleteResultDTO> byBrand = deviceController.deleteDevices(null, "Apple");
+
+        assertEquals(HttpStatus.OK, byIds.getStatusCode());
+        assertEquals(2L, byIds.getBody().getDeleted());
+        assertEquals(5L, byBrand.getBody().getDeleted());
+    }
+
+    @Test
+    void Given_BrandFilter_When_PatchDevices_Then_UpdatedCountIsReturned() {
+        DeviceRequestDTO requestDTO = new DeviceRequestDTO();
+        requestDTO.setBrand("NewCo");
+        when(deviceBulkService.patchDevicesByBrand("OldCo", requestDTO)).thenReturn(12L);
 
-        verify(deviceService, times(1)).deleteDevice(deviceId);
+        ResponseEntity<DeviceUpdateResultDTO> response = deviceController.patchDevices(null, "OldCo", requestDTO);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(12L, response.getBody().getUpdated());
+        assertThrows(InvalidRequestException.class, () -> deviceController.patchDevices(List.of(1L), "OldCo", requestDTO));
+    }
+
+    @Test
+    void Given_NeitherOrBothFilters_When_DeleteDevices_Then_ThrowInvalidRequestException() {
+        assertThrows(InvalidRequestException.class, () -> deviceController.deleteDevices(null, null));
+        assertThrows(InvalidRequestException.class, () -> deviceController.deleteDevices(List.of(), " "));
+        assertThrows(InvalidRequestException.class, () -> deviceController.deleteDevices(List.of(1L), "Apple"));
+        verifyNoInteractions(deviceService);
     }
 
     @Test
     void Should_ReturnListOfDeviceResponseDTO_When_SearchDeviceByBrand() {
         String brand = "Test Brand";
-        List<DeviceResponseDTO> devices = Arrays.asList(
-                new DeviceResponseDTO(),
-                new DeviceResponseDTO()
-        );
+        List<DeviceView> devices = Arrays.asList(view(1L, 0L), view(2L, 0L));
 
-        when(deviceService.searchDeviceByBrand(brand)).thenReturn(devices);
+        when(deviceService.searchDeviceByBrand(brand, false, null, null)).thenReturn(new DevicePageDTO(devices, null));
 
-        ResponseEntity<List<DeviceResponseDTO>> response = deviceController.searchDeviceByBrand(brand);
+        ResponseEntity<DevicePageDTO> response = deviceController.searchDeviceByBrand(brand, false, null, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(2, response.getBody().size());
+        assertEquals(2, response.getBody().getDevices().size());
     }
 
     @Test
     void Given_NoDevicesFound_When_SearchDeviceByBrand_Then_ReturnNoContent() {
         String brand = "Non-existent Brand";
-        when(deviceService.searchDeviceByBrand(brand)).thenReturn(Arrays.asList());
+        when(deviceService.searchDeviceByBrand(brand, false, null, null)).thenReturn(new DevicePageDTO(Arrays.asList(), null));
 
-        ResponseEntity<List<DeviceResponseDTO>> response = deviceController.searchDeviceByBrand(brand);
+        ResponseEntity<DevicePageDTO> response = deviceController.searchDeviceByBrand(brand, false, null, null, null);
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void When_ExportDevices_Expect_OneJsonObjectPerLine() throws Exception {
+        DeviceView first = new DeviceView(1L, "Device 1", "Brand 1", LocalDateTime.parse("2024-09-19T10:00:00"), 0L);
+        DeviceView second = new DeviceView(2L, "Device 2", "Brand 1", LocalDateTime.parse("2024-09-19T10:00:00"), 0L);
+
+        doAnswer(invocation -> {
+            Consumer<DeviceView> sink = invocation.getArgument(0);
+            sink.accept(first);
+            sink.accept(second);
+            return null;
+        }).when(deviceService).exportDevices(any(Consumer.class));
+
+        ResponseEntity<StreamingResponseBody> response = deviceController.exportDevices(null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1L, objectMapper.readValue(lines[0], DeviceResponseDTO.class).getId());
+        assertEquals("Device 2", objectMapper.readValue(lines[1], DeviceResponseDTO.class).getName());
+        assertEquals("2024-09-19T10:00:00", objectMapper.readValue(lines[1], DeviceResponseDTO.class).getCreationTime());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void When_ExportDevicesAsCbor_Expect_OneCborItemPerDevice() throws Exception {
+        DeviceView first = view(1L, 0L);
+        DeviceView second = new DeviceView(2L, "Device 2", "Brand 1", LocalDateTime.parse("2024-09-19T10:00:00"), 0L);
+
+        doAnswer(invocation -> {
+            Consumer<DeviceView> sink = invocation.getArgument(0);
+            sink.accept(first);
+            sink.accept(second);
+            return null;
+        }).when(deviceService).exportDevices(any(Consumer.class));
+
+        ResponseEntity<StreamingResponseBody> response = deviceController.exportDevices("application/x-ndjson;q=0.5, application/cbor-seq");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals(MediaType.parseMediaType("application/cbor-seq"), response.getHeaders().getContentType());
+        List<DeviceResponseDTO> devices = new CBORMapper().readerFor(DeviceResponseDTO.class)
+                .<DeviceResponseDTO>readValues(out.toByteArray()).readAll();
+        assertEquals(2, devices.size());
+        assertEquals("Device 2", devices.get(1).getName());
+    }
+
+    @Test
+    void Given_AllItemsCreated_When_AddDevices_Then_ReturnCreatedStatus() {
+        List<DeviceRequestDTO> requestDTOs = Arrays.asList(new DeviceRequestDTO(), new DeviceRequestDTO());
+        List<DeviceBulkResultDTO> results = Arrays.asList(
+                new DeviceBulkResultDTO(0, DeviceBulkResultDTO.Status.CREATED, new DeviceResponseDTO(), null),
+                new DeviceBulkResultDTO(1, DeviceBulkResultDTO.Status.CREATED, new DeviceResponseDTO(), null)
+        );
+
+        when(deviceBulkService.addDevices(requestDTOs)).thenReturn(results);
+
+        ResponseEntity<List<DeviceBulkResultDTO>> response = deviceController.addDevices(requestDTOs);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(2, response.getBody().size());
+    }
+
+    @Test
+    void Given_SomeItemsInvalid_When_AddDevices_Then_ReturnMultiStatus() {
+        List<DeviceRequestDTO> requestDTOs = Arrays.asList(new DeviceRequestDTO(), new DeviceRequestDTO());
+        List<DeviceBulkResultDTO> results = Arrays.asList(
+                new DeviceBulkResultDTO(0, DeviceBulkResultDTO.Status.CREATED, new DeviceResponseDTO(), null),
+                new DeviceBulkResultDTO(1, DeviceBulkResultDTO.Status.INVALID, null, Map.of("name", "Name is required"))
+        );
+
+        when(deviceBulkService.addDevices(requestDTOs)).thenReturn(results);
+
+        ResponseEntity<List<DeviceBulkResultDTO>> response = deviceController.addDevices(requestDTOs);
+
+        assertEquals(HttpStatus.MULTI_STATUS, response.getStatusCode());
+    }
+
+    @Test
+    void Should_ReturnSuggestedBrands_When_SuggestBrands() {
+        when(brandSuggestionIndex.suggest("ap", 10)).thenReturn(Arrays.asList("Apple", "Apricot"));
+
+        ResponseEntity<List<String>> response = deviceController.suggestBrands("ap", 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(Arrays.asList("Apple", "Apricot"), response.getBody());
+    }
+
+    @Test
+    void Given_MatchingDevices_When_SearchDevicesByText_Then_ReturnRankedPage() {
+        DeviceView device = new DeviceView(1L, "Galaxy S24", "Samsung", LocalDateTime.of(2024, 9, 19, 10, 0), 0L);
+        when(deviceTextIndex.search("galxy", null, null)).thenReturn(new DevicePageDTO(List.of(device), null));
+        when(deviceTextIndex.search("nokia", null, null)).thenReturn(new DevicePageDTO(List.of(), null));
+
+        ResponseEntity<DevicePageDTO> response = deviceController.searchDevicesByText("galxy", null, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(device), response.getBody().getDevices());
+        assertEquals(HttpStatus.NO_CONTENT, deviceController.searchDevicesByText("nokia", null, null, null).getStatusCode());
+    }
+
+    @Test
+    void Should_ReturnBrandStatistics_When_GetBrandStatistics() {
+        List<BrandStatsDTO> statistics = List.of(new BrandStatsDTO("Apple", 3, "2024-01-01T00:00:00", "2024-06-01T00:00:00"));
+        when(brandStatistics.getStatistics()).thenReturn(statistics);
+
+        ResponseEntity<List<BrandStatsDTO>> response = deviceController.getBrandStatistics();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(statistics, response.getBody());
+    }
+
+    @Test
+    void Should_ReturnCreatedStatistics_When_GetCreatedStatistics() {
+        List<CreatedStatsDTO> statistics = List.of(new CreatedStatsDTO("2024-01-01T00:00:00", 42));
+        when(deviceService.countDevicesCreated("day", null, null)).thenReturn(statistics);
+
+        ResponseEntity<List<CreatedStatsDTO>> response = deviceController.getCreatedStatistics("day", null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(statistics, response.getBody());
+    }
+
+    @Test
+    void Should_SubscribeFromLastEventId_When_StreamChanges() {
+        SseEmitter emitter = new SseEmitter();
+        when(deviceChangeFeed.subscribe("41")).thenReturn(emitter);
+
+        ResponseEntity<SseEmitter> response = deviceController.streamChanges("41");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(emitter, response.getBody());
+    }
+
+    @Test
+    void Should_ReturnAcceptedWithLocation_When_AddDeviceAsync() {
+        DeviceRequestDTO requestDTO = new DeviceRequestDTO();
+        requestDTO.setName("Test Device");
+        requestDTO.setBrand("Test Brand");
+        IngestStatusDTO status = new IngestStatusDTO("token-1", IngestStatusDTO.Status.QUEUED, null, null);
+        when(deviceIngestPipeline.submit(requestDTO)).thenReturn(status);
+
+        ResponseEntity<IngestStatusDTO> response = deviceController.addDeviceAsync(requestDTO);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("/device/async/token-1", response.getHeaders().getLocation().toString());
+        assertEquals(status, response.getBody());
+    }
+
+    @Test
+    void Should_ReturnIngestStatus_When_GetIngestStatus() {
+        IngestStatusDTO status = new IngestStatusDTO("token-1", IngestStatusDTO.Status.CREATED, new DeviceResponseDTO(), null);
+        when(deviceIngestPipeline.getStatus("token-1")).thenReturn(status);
+
+        ResponseEntity<IngestStatusDTO> response = deviceController.getIngestStatus("token-1");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(status, response.getBody());
+    }
+
+    private static DeviceView view(Long id, Long version) {
+        return new DeviceView(id, "Device " + id, "Brand", LocalDateTime.parse("2024-09-19T10:00:00"), version);
+    }
+}
@@ -0,0 +1,60 @@
+package com.challenge.burcakkocak.logging;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.challenge.burcakkocak.config.DeviceProperties;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+class AccessLogFilterTest {
+
+    @Spy
+    private DeviceProperties properties = new DeviceProperties();
+
+    @InjectMocks
+    private AccessLogFilter accessLogFilter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties.getAccessLog().setSlowThreshold(Duration.ofMillis(500));
+    }
+
+    @Test
+    void Given_SamplingDisabled_When_FastSuccessfulRequest_Then_NotLogged() {
+        properties.getAccessLog().setSampleRate(0);
+
+        assertFalse(accessLogFilter.isSampled(200, TimeUnit.MILLISECONDS.toNanos(10)));
+        assertFalse(accessLogFilter.isSampled(404, TimeUnit.MILLISECONDS.toNanos(10)));
+    }
+
+    @Test
+    void Given_SamplingDisabled_When_ServerErrorOrSlowRequest_Then_AlwaysLogged() {
+        properties.getAccessLog().setSampleRate(0);
+
+        assertTrue(accessLogFilter.isSampled(500, TimeUnit.MILLISECONDS.toNanos(10)));
+        assertTrue(accessLogFilter.isSampled(200, TimeUnit.MILLISECONDS.toNanos(500)));
+    }
+
+    @Test
+    void Given_FullSampling_When_Request_Then_LoggedAndPassedOn() throws Exception {
+        properties.getAccessLog().setSampleRate(1.0);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/device/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        accessLogFilter.doFilter(request, response, chain);
+
+        assertTrue(accessLogFilter.isSampled(200, 0));
+        assertSame(request, chain.getRequest());
+    }
+}
@@ -0,0 +1,49 @@
+package com.challenge.burcakkocak.mapper;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.challenge.burcakkocak.repo.DeviceView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+class TimestampCodecTest {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    @Test
+    void Given_ValidTimestamps_When_ParseAndFormat_Then_MatchDateTimeFormatter() {
+        for (String text : new String[]{"2024-09-19T10:15:30", "2024-02-29T23:59:59", "0001-01-01T00:00:00", "9999-12-31T23:59:59"}) {
+            LocalDateTime time = TimestampCodec.parse(text);
+
+            assertEquals(LocalDateTime.parse(text, FORMATTER), time);
+            assertEquals(text, TimestampCodec.format(time));
+        }
+        assertEquals("2024-09-19T10:15:30", TimestampCodec.format(LocalDateTime.of(2024, 9, 19, 10, 15, 30, 123_456_789)));
+        LocalDateTime farFuture = LocalDateTime.of(12024, 1, 1, 0, 0);
+        assertEquals(farFuture.format(FORMATTER), TimestampCodec.format(farFuture));
+    }
+
+    @Test
+    void Given_MalformedOrImpossibleTimestamps_When_Parse_Then_Reject() {
+        for (String text : new String[]{"", "2024-09-19", "2024-09-19 10:15:30", "2024-09-19T10:15:3x", "2024-13-01T00:00:00",
+                "2023-02-29T00:00:00", "2024-04-31T00:00:00", "2024-09-19T24:00:00", "0000-01-01T00:00:00", "2024-09-19T10:15:30Z"}) {
+            assertFalse(TimestampCodec.isValid(text), text);
+            assertThrows(DateTimeParseException.class, () -> TimestampCodec.parse(text), text);
+        }
+        assertFalse(TimestampCodec.isValid(null));
+    }
+
+    @Test
+    void Given_DeviceView_When_Serialized_Then_WriteTheResponseDTOShape() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        DeviceView view = new DeviceView(7L, "Galaxy \"S24\"", "Samsung", LocalDateTime.of(2024, 9, 19, 10, 15, 30), 2L);
+
+        assertEquals(objectMapper.writeValueAsString(new Mapper().toResponseDTO(view)), objectMapper.writeValueAsString(view));
+        assertEquals("{\"id\":1,\"name\":null,\"brand\":null,\"creationTime\":null,\"version\":null}",
+                objectMapper.writeValueAsString(new DeviceView(1L, null, null, null, null)));
+    }
+}
@@ -0,0 +1,49 @@
+package com.challenge.burcakkocak.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+class StatementMetricsInterceptorTest {
+
+    private final StatementCounter statementCounter = new StatementCounter();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private StatementMetricsInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new StatementMetricsInterceptor(statementCounter, meterRegistry);
+    }
+
+    @Test
+    void Given_StatementsDuringRequest_When_RequestCompletes_Then_CountIsRecordedPerUri() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/device/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/device/{id}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, null);
+        statementCounter.inspect("select 1");
+        statementCounter.inspect("select 2");
+        interceptor.afterCompletion(request, response, null, null);
+
+        DistributionSummary summary = meterRegistry.get("device.http.statements")
+                .tag("method", "GET").tag("uri", "/device/{id}").summary();
+        assertEquals(1, summary.count());
+        assertEquals(2.0, summary.totalAmount());
+    }
+
+    @Test
+    void Given_NoRequestInProgress_When_StatementInspected_Then_NothingIsCounted() {
+        assertEquals("select 1", statementCounter.inspect("select 1"));
+        assertEquals(-1, statementCounter.stop());
+    }
+}
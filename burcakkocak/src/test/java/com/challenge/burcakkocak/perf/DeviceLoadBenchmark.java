@@ -0,0 +1,257 @@
+package com.challenge.burcakkocak.perf;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load test over all seven DeviceController operations with a weighted mix, recording one HdrHistogram per operation.
+ * Not part of the regular build, run with {@code mvn -Pload-test test}.
+ * Tuning: -Dload.devices, -Dload.concurrency, -Dload.warmupSeconds, -Dload.durationSeconds,
+ * -Dload.mix (e.g. getById:90,search:5,add:2,update:1,patch:1,delete:1), -Dload.virtualThreads and
+ * -Dload.rate (total requests per second, 0 runs closed loop at maximum throughput).
+ * The report is printed and written to target/load-test/ together with a percentile distribution per operation.
+ */
+class DeviceLoadBenchmark {
+
+    private static final int DEVICES = Integer.getInteger("load.devices", 10_000);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 32);
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("load.warmupSeconds", 10));
+    private static final Duration MEASUREMENT = Duration.ofSeconds(Long.getLong("load.durationSeconds", 60));
+    private static final long RATE = Long.getLong("load.rate", 0);
+    private static final boolean VIRTUAL_THREADS = Boolean.getBoolean("load.virtualThreads");
+    private static final String MIX = System.getProperty("load.mix",
+            "getById:88,list:2,search:5,add:2,update:1,patch:1,delete:1");
+    private static final Path REPORT_DIR = Path.of("target", "load-test");
+
+    enum Operation {
+        GET_BY_ID("getById"), LIST("list"), SEARCH("search"), ADD("add"), UPDATE("update"), PATCH("patch"), DELETE("delete");
+
+        private final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        static Operation of(String key) {
+            return Arrays.stream(values()).filter(operation -> operation.key.equals(key)).findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown operation in load.mix: " + key));
+        }
+    }
+
+    // Per-client recording, merged once the run is over so the hot loop never contends on a shared histogram
+    static final class Recording {
+        final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        final Map<Operation, long[]> errors = new EnumMap<>(Operation.class);
+
+        Recording() {
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new Histogram(3)); // Microseconds, auto-resizing
+                errors.put(operation, new long[1]);
+            }
+        }
+
+        void record(Operation operation, long latencyNanos, boolean ok) {
+            latencies.get(operation).recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+            if (!ok) {
+                errors.get(operation)[0]++;
+            }
+        }
+
+        void add(Recording other) {
+            for (Operation operation : Operation.values()) {
+                latencies.get(operation).add(other.latencies.get(operation));
+                errors.get(operation)[0] += other.errors.get(operation)[0];
+            }
+        }
+    }
+
+    private final Operation[] weightedOperations = parseMix(MIX);
+    private final Queue<Long> deletableIds = new ConcurrentLinkedQueue<>();
+    private List<Long> seededIds;
+
+    @Test
+    void runMixedWorkload() throws Exception {
+        try (PerfApp app = PerfApp.start("load-test", "spring.threads.virtual.enabled=" + VIRTUAL_THREADS)) {
+            seededIds = app.seed(DEVICES);
+            drive(app, WARMUP);
+            Recording recording = drive(app, MEASUREMENT);
+            report(recording);
+        }
+    }
+
+    private static Operation[] parseMix(String mix) {
+        List<Operation> operations = new ArrayList<>(100);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            Operation operation = Operation.of(parts[0].trim());
+            for (int i = Integer.parseInt(parts[1].trim()); i > 0; i--) {
+                operations.add(operation);
+            }
+        }
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("load.mix has no weighted operations");
+        }
+        return operations.toArray(Operation[]::new);
+    }
+
+    // Closed loop by default. With load.rate every client follows a fixed schedule and latency is measured from the
+    // intended start time, so a stalled server shows up in the percentiles instead of silently lowering the load.
+    private Recording drive(PerfApp app, Duration duration) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            long start = System.nanoTime();
+            long deadline = start + duration.toNanos();
+            long intervalNanos = RATE > 0 ? TimeUnit.SECONDS.toNanos(CONCURRENCY) / RATE : 0;
+            List<Future<Recording>> futures = new ArrayList<>(CONCURRENCY);
+            for (int i = 0; i < CONCURRENCY; i++) {
+                long firstSlot = start + intervalNanos * i / CONCURRENCY;
+                futures.add(clients.submit(() -> {
+                    Recording recording = new Recording();
+                    long intended = firstSlot;
+                    while (System.nanoTime() < deadline) {
+                        long begin;
+                        if (intervalNanos > 0) {
+                            long wait = intended - System.nanoTime();
+                            if (wait > 0) {
+                                LockSupport.parkNanos(wait);
+                            }
+                            begin = intended;
+                            intended += intervalNanos;
+                        } else {
+                            begin = System.nanoTime();
+                        }
+                        Operation operation = weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)];
+                        boolean ok = execute(app, operation);
+                        recording.record(operation, System.nanoTime() - begin, ok);
+                    }
+                    return recording;
+                }));
+            }
+            Recording merged = new Recording();
+            for (Future<Recording> future : futures) {
+                merged.add(future.get());
+            }
+            return merged;
+        } finally {
+            clients.shutdownNow();
+            clients.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private boolean execute(PerfApp app, Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = seededIds.get(random.nextInt(seededIds.size()));
+        String brand = PerfApp.BRANDS[random.nextInt(PerfApp.BRANDS.length)];
+        try {
+            return switch (operation) {
+                case GET_BY_ID -> send(app, HttpRequest.newBuilder(app.uri("/device/" + id)).GET());
+                case LIST -> send(app, HttpRequest.newBuilder(app.uri("/device?limit=50")).GET());
+                case SEARCH -> send(app, HttpRequest.newBuilder(app.uri("/device/search?brand=" + brand + "&limit=20")).GET());
+                case ADD -> add(app, brand);
+                case UPDATE -> send(app, json(HttpRequest.newBuilder(app.uri("/device/" + id)))
+                        .PUT(HttpRequest.BodyPublishers.ofString(
+                                "{\"name\":\"Device " + id + "\",\"brand\":\"" + brand + "\",\"creationTime\":\"2024-01-01T00:00:00\"}")));
+                case PATCH -> send(app, json(HttpRequest.newBuilder(app.uri("/device/" + id)))
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"brand\":\"" + brand + "\"}")));
+                case DELETE -> delete(app, brand);
+            };
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private HttpRequest.Builder json(HttpRequest.Builder builder) {
+        return builder.header("Content-Type", "application/json");
+    }
+
+    private boolean send(PerfApp app, HttpRequest.Builder request) throws IOException, InterruptedException {
+        return app.client().send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+    }
+
+    // Added devices become the delete targets, so deletes never remove the seeded devices the reads go to
+    private boolean add(PerfApp app, String brand) throws IOException, InterruptedException {
+        HttpResponse<String> response = app.client().send(json(HttpRequest.newBuilder(app.uri("/device")))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Load device\",\"brand\":\"" + brand + "\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            return false;
+        }
+        deletableIds.add(app.objectMapper().readTree(response.body()).path("id").asLong());
+        return true;
+    }
+
+    private boolean delete(PerfApp app, String brand) throws IOException, InterruptedException {
+        Long id = deletableIds.poll();
+        if (id == null && add(app, brand)) {
+            id = deletableIds.poll();
+        }
+        return id != null && send(app, HttpRequest.newBuilder(app.uri("/device/" + id)).DELETE());
+    }
+
+    private void report(Recording recording) throws IOException {
+        Files.createDirectories(REPORT_DIR);
+        double seconds = MEASUREMENT.toNanos() / 1e9;
+        String header = String.format(Locale.ROOT, "%-9s %10s %7s %10s %9s %9s %9s %9s %9s",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms");
+        StringBuilder text = new StringBuilder(String.format(Locale.ROOT,
+                "devices=%d concurrency=%d rate=%s duration=%ds threads=%s mix=%s%n%n%s%n",
+                DEVICES, CONCURRENCY, RATE > 0 ? RATE + "/s" : "max", MEASUREMENT.toSeconds(),
+                VIRTUAL_THREADS ? "virtual" : "platform", MIX, header));
+        StringBuilder csv = new StringBuilder("operation,requests,errors,throughput_rps,p50_ms,p90_ms,p99_ms,p999_ms,max_ms\n");
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = recording.latencies.get(operation);
+            long errors = recording.errors.get(operation)[0];
+            total.add(histogram);
+            totalErrors += errors;
+            if (histogram.getTotalCount() > 0) {
+                appendRow(text, csv, operation.key, histogram, errors, seconds);
+                try (PrintStream out = new PrintStream(REPORT_DIR.resolve(operation.key + ".hgrm").toFile())) {
+                    histogram.outputPercentileDistribution(out, 1000.0);
+                }
+            }
+        }
+        appendRow(text, csv, "total", total, totalErrors, seconds);
+        System.out.printf("%n%s", text);
+        Files.writeString(REPORT_DIR.resolve("report.txt"), text);
+        Files.writeString(REPORT_DIR.resolve("summary.csv"), csv);
+    }
+
+    private void appendRow(StringBuilder text, StringBuilder csv, String name, Histogram histogram, long errors, double seconds) {
+        long count = histogram.getTotalCount();
+        double[] millis = {
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0};
+        text.append(String.format(Locale.ROOT, "%-9s %10d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, count, errors, count / seconds, millis[0], millis[1], millis[2], millis[3], millis[4]));
+        csv.append(String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                name, count, errors, count / seconds, millis[0], millis[1], millis[2], millis[3], millis[4]));
+    }
+}
@@ -0,0 +1,91 @@
+package com.challenge.burcakkocak.perf;
+
+import com.challenge.burcakkocak.BurcakkocakApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The application started on a random port with its own in-memory H2 database, for the perf harnesses in this package.
+ */
+final class PerfApp implements AutoCloseable {
+
+    static final String[] BRANDS = {"Apple", "Samsung", "Sony", "Nokia", "Xiaomi"};
+    private static final int SEED_BATCH = 5000;
+
+    private final ConfigurableApplicationContext context;
+    private final String baseUrl;
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private PerfApp(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    // Extra properties override the defaults, e.g. "spring.threads.virtual.enabled=true". They are passed as
+    // command line arguments because builder default properties rank below application.properties.
+    static PerfApp start(String database, String... properties) {
+        String[] defaults = {
+                "server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:" + database,
+                "logging.level.org.hibernate.SQL=WARN",
+                "spring.h2.console.enabled=false",
+                "logging.level.root=WARN"};
+        return new PerfApp(new SpringApplicationBuilder(BurcakkocakApplication.class)
+                .run(Stream.concat(Stream.of(defaults), Stream.of(properties)).map(property -> "--" + property).toArray(String[]::new)));
+    }
+
+    HttpClient client() {
+        return client;
+    }
+
+    ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
+    URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    // Creates the devices through /device/bulk and returns their ids
+    List<Long> seed(int devices) throws IOException, InterruptedException {
+        List<Long> ids = new ArrayList<>(devices);
+        for (int offset = 0; offset < devices; offset += SEED_BATCH) {
+            StringBuilder body = new StringBuilder("[");
+            for (int i = offset; i < Math.min(offset + SEED_BATCH, devices); i++) {
+                if (i > offset) {
+                    body.append(',');
+                }
+                body.append("{\"name\":\"Device ").append(i).append("\",\"brand\":\"").append(BRANDS[i % BRANDS.length]).append("\"}");
+            }
+            body.append(']');
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/device/bulk"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(201, response.statusCode());
+            for (JsonNode result : objectMapper.readTree(response.body())) {
+                ids.add(result.path("device").path("id").asLong());
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,147 @@
+package com.challenge.burcakkocak.perf;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the same read-heavy workload against the app on Tomcat platform threads and on virtual threads,
+ * with H2 in memory and the device cache disabled so every request reaches JDBC.
+ * Not part of the regular build, run with {@code mvn -Pthread-benchmark test} on JDK 21.
+ * Tuning: -Dbench.devices, -Dbench.concurrency (comma separated), -Dbench.warmupSeconds, -Dbench.durationSeconds.
+ * Results are printed and written to target/thread-benchmark.csv.
+ */
+class ThreadModelBenchmark {
+
+    private static final int DEVICES = Integer.getInteger("bench.devices", 10_000);
+    private static final int[] CONCURRENCY = Arrays.stream(System.getProperty("bench.concurrency", "50,200,1000").split(","))
+            .mapToInt(value -> Integer.parseInt(value.trim())).toArray();
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("bench.warmupSeconds", 5));
+    private static final Duration MEASUREMENT = Duration.ofSeconds(Long.getLong("bench.durationSeconds", 15));
+
+    record Result(String threads, int concurrency, long requests, long errors, double throughput,
+                  double p50Millis, double p99Millis, double maxMillis) {
+    }
+
+    @Test
+    void compareThreadModels() throws Exception {
+        List<Result> results = new ArrayList<>(run(false));
+        if (Runtime.version().feature() >= 21) {
+            results.addAll(run(true));
+        } else {
+            System.out.println("Virtual threads need JDK 21, only platform threads were measured");
+        }
+        report(results);
+    }
+
+    private List<Result> run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (PerfApp app = PerfApp.start("thread-benchmark-" + mode,
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "device.cache.maximum-size=0")) {
+            app.seed(DEVICES);
+            List<Result> results = new ArrayList<>();
+            for (int concurrency : CONCURRENCY) {
+                drive(app, concurrency, WARMUP);
+                long[] latencies = drive(app, concurrency, MEASUREMENT);
+                results.add(summarize(mode, concurrency, latencies));
+            }
+            return results;
+        }
+    }
+
+    // Closed loop: every client sends its next request as soon as the previous one returns.
+    // Latencies are in nanoseconds; failed requests are recorded as negative values.
+    private long[] drive(PerfApp app, int concurrency, Duration duration) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        try {
+            long deadline = System.nanoTime() + duration.toNanos();
+            List<Future<long[]>> futures = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(clients.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(app.uri(nextPath())).GET().build();
+                        long start = System.nanoTime();
+                        boolean ok;
+                        try {
+                            ok = app.client().send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+                        } catch (IOException e) {
+                            ok = false;
+                        }
+                        long latency = System.nanoTime() - start;
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = ok ? latency : -latency;
+                    }
+                    return Arrays.copyOf(samples, count);
+                }));
+            }
+            long[] all = new long[0];
+            for (Future<long[]> future : futures) {
+                long[] samples = future.get();
+                int previous = all.length;
+                all = Arrays.copyOf(all, previous + samples.length);
+                System.arraycopy(samples, 0, all, previous, samples.length);
+            }
+            return all;
+        } finally {
+            clients.shutdownNow();
+            clients.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    // 90% single-device reads, 10% brand searches
+    private String nextPath() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(10) == 0) {
+            return "/device/search?brand=" + PerfApp.BRANDS[random.nextInt(PerfApp.BRANDS.length)] + "&limit=20";
+        }
+        return "/device/" + (1 + random.nextInt(DEVICES));
+    }
+
+    private Result summarize(String mode, int concurrency, long[] samples) {
+        long errors = Arrays.stream(samples).filter(latency -> latency < 0).count();
+        long[] latencies = Arrays.stream(samples).map(Math::abs).sorted().toArray();
+        double seconds = MEASUREMENT.toNanos() / 1e9;
+        return new Result(mode, concurrency, latencies.length, errors, latencies.length / seconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.99),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+    }
+
+    private double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+    }
+
+    private void report(List<Result> results) throws IOException {
+        StringBuilder csv = new StringBuilder("threads,concurrency,requests,errors,throughput_rps,p50_ms,p99_ms,max_ms\n");
+        System.out.printf("%n%-9s %11s %10s %7s %12s %9s %9s %9s%n",
+                "threads", "concurrency", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+        for (Result r : results) {
+            System.out.printf(Locale.ROOT, "%-9s %11d %10d %7d %12.1f %9.2f %9.2f %9.2f%n",
+                    r.threads(), r.concurrency(), r.requests(), r.errors(), r.throughput(), r.p50Millis(), r.p99Millis(), r.maxMillis());
+            csv.append(String.format(Locale.ROOT, "%s,%d,%d,%d,%.1f,%.3f,%.3f,%.3f%n",
+                    r.threads(), r.concurrency(), r.requests(), r.errors(), r.throughput(), r.p50Millis(), r.p99Millis(), r.maxMillis()));
+        }
+        Files.writeString(Path.of("target", "thread-benchmark.csv"), csv);
+    }
+}
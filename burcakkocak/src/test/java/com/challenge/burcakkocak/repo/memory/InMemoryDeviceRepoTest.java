@@ -0,0 +1,186 @@
+package com.challenge.burcakkocak.repo.memory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.challenge.burcakkocak.entity.Device;
+import com.challenge.burcakkocak.repo.BrandTotals;
+import com.challenge.burcakkocak.repo.CreatedCount;
+import com.challenge.burcakkocak.repo.DevicePatch;
+import com.challenge.burcakkocak.repo.DeviceView;
+import com.challenge.burcakkocak.repo.TimeBucket;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+class InMemoryDeviceRepoTest {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @TempDir
+    private Path directory;
+
+    private InMemoryDeviceStore store;
+    private InMemoryDeviceRepo deviceRepo;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        reopen();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void Given_NewDevices_When_Save_Then_IdsAscendAndPagesFollowIdOrder() {
+        Device first = deviceRepo.save(new Device(null, "Device 1", "Apple", TIME));
+        Device second = deviceRepo.save(new Device(null, "Device 2", "Samsung", TIME));
+        deviceRepo.save(new Device(null, "Device 3", "APPLE", TIME));
+
+        assertEquals(1L, first.getId());
+        assertEquals(0L, first.getVersion());
+        assertEquals(3, deviceRepo.count());
+        assertEquals(List.of(2L, 3L), ids(deviceRepo.findPageAfter(first.getId(), Limit.of(10))));
+        assertEquals(List.of(1L), ids(deviceRepo.findPageByBrandKeyAfter("apple", 0L, Limit.of(1))));
+        assertEquals(List.of(3L), ids(deviceRepo.findPageByBrandKeyAfter("apple", 1L, Limit.of(10))));
+        assertEquals(List.of(2L), ids(deviceRepo.findPageByBrandKeyLikeAfter("sam%", 0L, Limit.of(10))));
+        assertEquals("Samsung", deviceRepo.findViewById(second.getId()).orElseThrow().brand());
+    }
+
+    @Test
+    void Given_StaleVersion_When_Save_Then_ThrowOptimisticLockingFailure() {
+        Device device = deviceRepo.save(new Device(null, "Device 1", "Apple", TIME));
+        Device stale = deviceRepo.findById(device.getId()).orElseThrow();
+
+        device.setName("Renamed");
+        deviceRepo.save(device);
+
+        assertEquals(1L, device.getVersion());
+        stale.setName("Other");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> deviceRepo.save(stale));
+        assertEquals("Renamed", deviceRepo.findViewById(device.getId()).orElseThrow().name());
+    }
+
+    @Test
+    void Given_Devices_When_PatchAndDeleteReturning_Then_ReturnPreviousStateAndUpdateIndex() {
+        deviceRepo.save(new Device(null, "Device 1", "Apple", TIME));
+        deviceRepo.save(new Device(null, "Device 2", "Apple", TIME));
+
+        List<DeviceView> patched = deviceRepo.patchAllByBrandKeyReturning("apple", 0L, 10, new DevicePatch(null, "Pear", null));
+
+        assertEquals(List.of("Apple", "Apple"), patched.stream().map(DeviceView::brand).toList());
+        assertTrue(deviceRepo.findPageByBrandKeyAfter("apple", 0L, Limit.of(10)).isEmpty());
+        assertEquals(1L, deviceRepo.findViewById(1L).orElseThrow().version());
+
+        assertTrue(deviceRepo.deleteByIdReturning(1L, 0L).isEmpty());
+        assertEquals(List.of(1L), ids(deviceRepo.deleteByIdReturning(1L, 1L)));
+        assertEquals(List.of(2L), ids(deviceRepo.deleteAllByBrandKeyReturning("pear", 10)));
+        assertEquals(0, deviceRepo.count());
+    }
+
+    @Test
+    void Given_BrandsRenamedAndDeleted_When_ReadBrandTotals_Then_OnlyLiveBrandKeysRemain() {
+        deviceRepo.save(new Device(null, "Device 1", "Apple", TIME));
+        deviceRepo.save(new Device(null, "Device 2", "Nokia", TIME.plusHours(1)));
+        deviceRepo.save(new Device(null, "Device 3", "Nokia", null));
+        deviceRepo.save(new Device(null, "Device 4", "Sony", TIME));
+
+        deviceRepo.patchAllByIdReturning(List.of(1L), new DevicePatch(null, "Pear", null));
+        deviceRepo.deleteAllByBrandKeyReturning("sony", 10);
+        deviceRepo.save(new Device(null, "Device 5", "Sony", null));
+
+        assertEquals(List.of("nokia", "pear", "sony"), List.copyOf(store.brandKeysFrom("").keySet()));
+        List<BrandTotals> totals = deviceRepo.findBrandTotalsByBrandIn(List.of("Nokia", "Sony", "Apple"));
+        assertEquals(List.of("Nokia/2/" + TIME.plusHours(1) + "/" + TIME.plusHours(1), "Sony/1/null/null"),
+                totals.stream().map(brand -> brand.getBrand() + "/" + brand.getCount() + "/" + brand.getFirstCreationTime()
+                        + "/" + brand.getLastCreationTime()).sorted().toList());
+    }
+
+    @Test
+    void Given_CreationTimes_When_ListAndCountCreated_Then_OrderByTimeAndGroupPerHour() {
+        deviceRepo.save(new Device(null, "Device 1", "Apple", TIME.plusMinutes(90)));
+        deviceRepo.save(new Device(null, "Device 2", "Apple", TIME));
+        deviceRepo.save(new Device(null, "Device 3", "Apple", TIME));
+
+        List<DeviceView> page = deviceRepo.findPageCreatedBetweenAfter(TIME, TIME.plusDays(1), 2L, Limit.of(10));
+        List<CreatedCount> counts = deviceRepo.countCreatedPerBucket(TimeBucket.HOUR, TIME, TIME.plusDays(1));
+
+        assertEquals(List.of(3L, 1L), ids(page));
+        assertEquals(List.of(new CreatedCount(TIME, 2), new CreatedCount(TIME.plusHours(1), 1)), counts);
+    }
+
+    @Test
+    void Given_ChangedCreationTimes_When_ListCreated_Then_FollowTheIndex() {
+        deviceRepo.save(new Device(null, "Device 1", "Apple", TIME));
+        deviceRepo.save(new Device(null, "Device 2", "Apple", TIME.plusHours(1)));
+        deviceRepo.save(new Device(null, "Device 3", "Apple", TIME.plusHours(2)));
+
+        deviceRepo.patchAllByIdReturning(List.of(1L), new DevicePatch(null, null, TIME.plusHours(3)));
+        deviceRepo.deleteAllByIdReturning(List.of(2L));
+
+        assertEquals(List.of(3L, 1L), ids(deviceRepo.findPageCreatedBetweenAfter(TIME, TIME.plusDays(1), 0L, Limit.of(10))));
+        assertEquals(List.of(1L), ids(deviceRepo.findPageCreatedBetweenAfter(TIME.plusHours(2), TIME.plusDays(1), 3L, Limit.of(10))));
+        assertEquals(List.of(3L), ids(deviceRepo.findPageCreatedBetweenAfter(TIME, TIME.plusDays(1), 0L, Limit.of(1))));
+        assertEquals(List.of(new CreatedCount(TIME.plusHours(2), 1), new CreatedCount(TIME.plusHours(3), 1)),
+                deviceRepo.countCreatedPerBucket(TimeBucket.HOUR, TIME, TIME.plusDays(1)));
+    }
+
+    @Test
+    void Given_SnapshotAndChangeLog_When_Reopen_Then_RecoverLatestState() throws IOException {
+        deviceRepo.save(new Device(null, "Device 1", "Apple", TIME));
+        deviceRepo.save(new Device(null, "Device 2", "Samsung", TIME));
+        store.snapshot();
+        deviceRepo.patchAllByIdReturning(List.of(1L), new DevicePatch("Renamed", null, null));
+        deviceRepo.deleteAllByIdReturning(List.of(2L));
+
+        store.close();
+        reopen();
+
+        assertEquals(1, deviceRepo.count());
+        assertEquals("Renamed", deviceRepo.findViewById(1L).orElseThrow().name());
+        assertTrue(deviceRepo.findPageByBrandKeyAfter("samsung", 0L, Limit.of(10)).isEmpty());
+        assertEquals(3L, deviceRepo.save(new Device(null, "Device 3", "Apple", TIME)).getId());
+    }
+
+    @Test
+    void Given_TornChangeRecord_When_Reopen_Then_ReplayUpToIt() throws IOException {
+        deviceRepo.save(new Device(null, "Device 1", "Apple", TIME));
+        Path segment = directory.resolve("changes-1.log");
+        long written = 4 + 1 + 8 + 8 + 8 + 4 + "Device 1".length() + 4 + "Apple".length() + 4;
+        // A second record whose payload never made it to the file
+        deviceRepo.save(new Device(null, "Device 2", "Apple", TIME));
+        try (SeekableByteChannel channel = Files.newByteChannel(segment, StandardOpenOption.WRITE)) {
+            channel.position(written + 4);
+            channel.write(ByteBuffer.allocate(16));
+        }
+
+        // Recover without the closing snapshot, as after a crash
+        reopen();
+
+        assertEquals(1, deviceRepo.count());
+        assertEquals("Device 1", deviceRepo.findViewById(1L).orElseThrow().name());
+    }
+
+    private void reopen() throws IOException {
+        store = new InMemoryDeviceStore(directory, 1 << 16);
+        store.open();
+        deviceRepo = new InMemoryDeviceRepo(store);
+    }
+
+    private static List<Long> ids(List<DeviceView> devices) {
+        return devices.stream().map(DeviceView::id).toList();
+    }
+}
@@ -0,0 +1,125 @@
+package com.challenge.burcakkocak.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.challenge.burcakkocak.entity.Device;
+import com.challenge.burcakkocak.entity.dto.BrandStatsDTO;
+import com.challenge.burcakkocak.event.DeviceChangedEvent;
+import com.challenge.burcakkocak.event.DeviceSnapshot;
+import com.challenge.burcakkocak.repo.BrandTotals;
+import com.challenge.burcakkocak.repo.DeviceStore;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+class BrandStatisticsTest {
+
+    private static final LocalDateTime JANUARY = LocalDateTime.parse("2024-01-01T00:00:00");
+    private static final LocalDateTime JUNE = LocalDateTime.parse("2024-06-01T00:00:00");
+    private static final LocalDateTime DECEMBER = LocalDateTime.parse("2024-12-01T00:00:00");
+
+    @Mock
+    private DeviceStore deviceRepo;
+
+    @InjectMocks
+    private BrandStatistics brandStatistics;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(deviceRepo.findBrandTotals()).thenReturn(Arrays.asList(
+                brandTotals("Apple", 2, JANUARY, JUNE), brandTotals("Samsung", 1, JUNE, JUNE)));
+        brandStatistics.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void Given_SeededCounters_When_GetStatistics_Then_ServedWithoutQuery() {
+        List<BrandStatsDTO> statistics = brandStatistics.getStatistics();
+
+        assertEquals(Arrays.asList(
+                new BrandStatsDTO("Apple", 2, "2024-01-01T00:00:00", "2024-06-01T00:00:00"),
+                new BrandStatsDTO("Samsung", 1, "2024-06-01T00:00:00", "2024-06-01T00:00:00")), statistics);
+        verify(deviceRepo, times(1)).findBrandTotals();
+        verify(deviceRepo, never()).findBrandTotalsByBrandIn(anyCollection());
+    }
+
+    @Test
+    void Given_DeviceCreatedAndRebranded_When_DeviceChanged_Then_CountersFollow() {
+        Device created = new Device(5L, "Galaxy", "Samsung", DECEMBER);
+        brandStatistics.onDeviceChanged(DeviceChangedEvent.created(created));
+        Device rebranded = new Device(5L, "Galaxy", "Sony", DECEMBER);
+        brandStatistics.onDeviceChanged(DeviceChangedEvent.updated(DeviceSnapshot.of(created), rebranded));
+        brandStatistics.onDeviceChanged(DeviceChangedEvent.created(new Device(6L, "iPhone", "Apple", DECEMBER)));
+
+        // The rebranded device was Samsung's latest, so that range is read again
+        when(deviceRepo.findBrandTotalsByBrandIn(List.of("Samsung"))).thenReturn(List.of(brandTotals("Samsung", 1, JUNE, JUNE)));
+
+        assertEquals(Arrays.asList(
+                new BrandStatsDTO("Apple", 3, "2024-01-01T00:00:00", "2024-12-01T00:00:00"),
+                new BrandStatsDTO("Samsung", 1, "2024-06-01T00:00:00", "2024-06-01T00:00:00"),
+                new BrandStatsDTO("Sony", 1, "2024-12-01T00:00:00", "2024-12-01T00:00:00")), brandStatistics.getStatistics());
+    }
+
+    @Test
+    void Given_LastDeviceOfBrandDeleted_When_GetStatistics_Then_BrandIsDropped() {
+        brandStatistics.onDeviceChanged(DeviceChangedEvent.deleted(
+                DeviceSnapshot.of(new Device(3L, "Galaxy", "Samsung", JUNE))));
+        when(deviceRepo.findBrandTotalsByBrandIn(List.of("Samsung"))).thenReturn(List.of());
+
+        assertEquals(List.of("Apple"), brandStatistics.getStatistics().stream().map(BrandStatsDTO::getBrand).toList());
+    }
+
+    @Test
+    void Given_DevicesWithoutCreationTime_When_GetStatistics_Then_CountedOutsideTheRange() {
+        when(deviceRepo.findBrandTotals()).thenReturn(List.of(
+                brandTotals("Nokia", 1, null, null), brandTotals("Samsung", 1, JUNE, JUNE)));
+        brandStatistics.reconcile();
+        brandStatistics.onDeviceChanged(DeviceChangedEvent.created(new Device(7L, "3310", "Nokia", null)));
+        brandStatistics.onDeviceChanged(DeviceChangedEvent.created(new Device(8L, "Galaxy", "Samsung", null)));
+        brandStatistics.onDeviceChanged(DeviceChangedEvent.deleted(DeviceSnapshot.of(new Device(8L, "Galaxy", "Samsung", null))));
+
+        assertEquals(List.of(new BrandStatsDTO("Nokia", 2, null, null),
+                new BrandStatsDTO("Samsung", 1, "2024-06-01T00:00:00", "2024-06-01T00:00:00")), brandStatistics.getStatistics());
+    }
+
+    @Test
+    void Given_Drift_When_Reconcile_Then_CountersMatchTable() {
+        when(deviceRepo.findBrandTotals()).thenReturn(List.of(brandTotals("Apple", 5, JANUARY, DECEMBER)));
+
+        brandStatistics.reconcile();
+
+        assertEquals(List.of(new BrandStatsDTO("Apple", 5, "2024-01-01T00:00:00", "2024-12-01T00:00:00")),
+                brandStatistics.getStatistics());
+    }
+
+    private BrandTotals brandTotals(String brand, long count, LocalDateTime first, LocalDateTime last) {
+        return new BrandTotals() {
+            @Override
+            public String getBrand() {
+                return brand;
+            }
+
+            @Override
+            public long getCount() {
+                return count;
+            }
+
+            @Override
+            public LocalDateTime getFirstCreationTime() {
+                return first;
+            }
+
+            @Override
+            public LocalDateTime getLastCreationTime() {
+                return last;
+            }
+        };
+    }
+}
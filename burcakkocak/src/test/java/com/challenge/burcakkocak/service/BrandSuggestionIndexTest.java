@@ -0,0 +1,86 @@
+package com.challenge.burcakkocak.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.challenge.burcakkocak.entity.Device;
+import com.challenge.burcakkocak.event.DeviceChangedEvent;
+import com.challenge.burcakkocak.event.DeviceSnapshot;
+import com.challenge.burcakkocak.repo.BrandCount;
+import com.challenge.burcakkocak.repo.DeviceStore;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+class BrandSuggestionIndexTest {
+
+    @Mock
+    private DeviceStore deviceRepo;
+
+    @InjectMocks
+    private BrandSuggestionIndex brandSuggestionIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(deviceRepo.countDevicesByBrand()).thenReturn(Arrays.asList(
+                brandCount("Apple", 3), brandCount("apple", 1), brandCount("Apricot", 1), brandCount("Samsung", 2)));
+        brandSuggestionIndex.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void Given_MixedCasePrefix_When_Suggest_Then_ReturnMatchingBrandsInOrder() {
+        assertEquals(Arrays.asList("Apple", "Apricot"), brandSuggestionIndex.suggest("aP", 10));
+        assertEquals(List.of("Apple"), brandSuggestionIndex.suggest("ap", 1));
+        assertEquals(List.of("Samsung"), brandSuggestionIndex.suggest("S", 10));
+        assertTrue(brandSuggestionIndex.suggest("x", 10).isEmpty());
+    }
+
+    @Test
+    void Given_LastDeviceOfBrandRebranded_When_DeviceChanged_Then_BrandIsReplaced() {
+        Device before = new Device(1L, "Galaxy", "Apricot", LocalDateTime.now());
+        Device after = new Device(1L, "Galaxy", "Apex", LocalDateTime.now());
+
+        brandSuggestionIndex.onDeviceChanged(DeviceChangedEvent.updated(DeviceSnapshot.of(before), after));
+
+        assertEquals(Arrays.asList("Apex", "Apple"), brandSuggestionIndex.suggest("ap", 10));
+    }
+
+    @Test
+    void Given_BrandStillInUse_When_DeviceDeleted_Then_BrandIsKept() {
+        Device device = new Device(1L, "Galaxy", "Samsung", LocalDateTime.now());
+
+        brandSuggestionIndex.onDeviceChanged(DeviceChangedEvent.deleted(DeviceSnapshot.of(device)));
+        assertEquals(List.of("Samsung"), brandSuggestionIndex.suggest("sam", 10));
+
+        brandSuggestionIndex.onDeviceChanged(DeviceChangedEvent.deleted(DeviceSnapshot.of(device)));
+        assertTrue(brandSuggestionIndex.suggest("sam", 10).isEmpty());
+    }
+
+    @Test
+    void When_DeviceCreated_Expect_NewBrandSuggested() {
+        brandSuggestionIndex.onDeviceChanged(DeviceChangedEvent.created(new Device(9L, "Xperia", "Sony", LocalDateTime.now())));
+
+        assertEquals(List.of("Sony"), brandSuggestionIndex.suggest("so", 10));
+    }
+
+    private BrandCount brandCount(String brand, long count) {
+        return new BrandCount() {
+            @Override
+            public String getBrand() {
+                return brand;
+            }
+
+            @Override
+            public long getCount() {
+                return count;
+            }
+        };
+    }
+}
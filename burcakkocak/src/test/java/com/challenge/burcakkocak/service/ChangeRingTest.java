@@ -0,0 +1,40 @@
+package com.challenge.burcakkocak.service;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+class ChangeRingTest {
+
+    private final ChangeRing<String> ring = new ChangeRing<>(3);
+
+    @Test
+    void Given_EmptyRing_When_Read_Then_NothingIsPending() {
+        assertEquals(1, ring.nextSequence());
+        assertEquals(1, ring.oldestSequence());
+        assertEquals(List.of(), ring.read(1, 10));
+    }
+
+    @Test
+    void Given_Appends_When_ReadFromSequence_Then_ReturnEntriesInOrderUpToMax() {
+        assertEquals(1, ring.append("a"));
+        assertEquals(2, ring.append("b"));
+        ring.append("c");
+
+        assertEquals(List.of("a", "b"), ring.read(1, 2));
+        assertEquals(List.of("b", "c"), ring.read(2, 10));
+        assertEquals(List.of(), ring.read(4, 10));
+    }
+
+    @Test
+    void Given_FullRing_When_ReadOverwrittenSequence_Then_ReturnNull() {
+        for (String entry : List.of("a", "b", "c", "d", "e")) {
+            ring.append(entry);
+        }
+
+        assertEquals(3, ring.oldestSequence());
+        assertNull(ring.read(2, 10));
+        assertEquals(List.of("c", "d", "e"), ring.read(3, 10));
+    }
+}
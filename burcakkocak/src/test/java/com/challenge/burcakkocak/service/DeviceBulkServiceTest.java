@@ -0,0 +1,149 @@
+package com.challenge.burcakkocak.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.challenge.burcakkocak.config.DeviceProperties;
+import com.challenge.burcakkocak.entity.Device;
+import com.challenge.burcakkocak.entity.dto.DeviceBulkResultDTO;
+import com.challenge.burcakkocak.entity.dto.DeviceRequestDTO;
+import com.challenge.burcakkocak.entity.dto.DeviceResponseDTO;
+import com.challenge.burcakkocak.exception.InvalidRequestException;
+import com.challenge.burcakkocak.mapper.Mapper;
+import com.challenge.burcakkocak.repo.DeviceView;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class DeviceBulkServiceTest {
+
+    @Mock
+    private DeviceService deviceService;
+
+    @Spy
+    private Mapper mapper = new Mapper();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private DeviceProperties properties = new DeviceProperties();
+
+    @InjectMocks
+    private DeviceBulkService deviceBulkService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties.getBulk().setChunkSize(2);
+        when(deviceService.addDevices(anyList())).thenAnswer(invocation -> {
+            List<Device> devices = invocation.getArgument(0);
+            List<DeviceResponseDTO> created = new ArrayList<>();
+            for (Device device : devices) {
+                DeviceResponseDTO dto = new DeviceResponseDTO();
+                dto.setName(device.getName());
+                created.add(dto);
+            }
+            return created;
+        });
+    }
+
+    @Test
+    void Given_ValidDevices_When_AddDevices_Then_PersistInChunks() {
+        List<DeviceRequestDTO> dtos = Arrays.asList(request("A"), request("B"), request("C"));
+
+        List<DeviceBulkResultDTO> results = deviceBulkService.addDevices(dtos);
+
+        assertEquals(3, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+            assertEquals(DeviceBulkResultDTO.Status.CREATED, results.get(i).getStatus());
+        }
+        assertEquals("C", results.get(2).getDevice().getName());
+        verify(deviceService, times(2)).addDevices(anyList());
+    }
+
+    @Test
+    void Given_InvalidItems_When_AddDevices_Then_ReportThemAndPersistTheRest() {
+        DeviceRequestDTO missingBrand = request("B");
+        missingBrand.setBrand(" ");
+        DeviceRequestDTO impossibleDate = request("C");
+        impossibleDate.setCreationTime("2024-13-45T10:00:00");
+
+        List<DeviceBulkResultDTO> results = deviceBulkService.addDevices(Arrays.asList(request("A"), missingBrand, impossibleDate, null));
+
+        assertEquals(DeviceBulkResultDTO.Status.CREATED, results.get(0).getStatus());
+        assertEquals(DeviceBulkResultDTO.Status.INVALID, results.get(1).getStatus());
+        assertEquals("Brand is required", results.get(1).getErrors().get("brand"));
+        assertEquals(DeviceBulkResultDTO.Status.INVALID, results.get(2).getStatus());
+        assertTrue(results.get(2).getErrors().containsKey("creationTime"));
+        assertEquals(DeviceBulkResultDTO.Status.INVALID, results.get(3).getStatus());
+        verify(deviceService, times(1)).addDevices(anyList());
+    }
+
+    @Test
+    void Given_ChunkFailsToPersist_When_AddDevices_Then_OnlyItsItemsFail() {
+        when(deviceService.addDevices(anyList()))
+                .thenThrow(new IllegalStateException("constraint violated"))
+                .thenReturn(Collections.singletonList(new DeviceResponseDTO()));
+
+        List<DeviceBulkResultDTO> results = deviceBulkService.addDevices(Arrays.asList(request("A"), request("B"), request("C")));
+
+        assertEquals(DeviceBulkResultDTO.Status.FAILED, results.get(0).getStatus());
+        assertEquals(DeviceBulkResultDTO.Status.FAILED, results.get(1).getStatus());
+        assertEquals(DeviceBulkResultDTO.Status.CREATED, results.get(2).getStatus());
+    }
+
+    @Test
+    void Given_TooManyItems_When_AddDevices_Then_ThrowInvalidRequestException() {
+        properties.getBulk().setMaxItems(2);
+
+        assertThrows(InvalidRequestException.class,
+                () -> deviceBulkService.addDevices(Arrays.asList(request("A"), request("B"), request("C"))));
+        verifyNoInteractions(deviceService);
+    }
+
+    @Test
+    void Given_LargeBrand_When_DeleteDevicesByBrand_Then_DeleteChunkByChunkUntilNoneLeft() {
+        when(deviceService.deleteDevicesByBrand("Apple", 2)).thenReturn(2L, 2L, 1L);
+
+        assertEquals(5, deviceBulkService.deleteDevicesByBrand("Apple"));
+
+        verify(deviceService, times(3)).deleteDevicesByBrand("Apple", 2);
+    }
+
+    @Test
+    void Given_LargeBrand_When_PatchDevicesByBrand_Then_ContinueAfterTheLastPatchedId() {
+        DeviceRequestDTO dto = new DeviceRequestDTO();
+        dto.setName("Renamed");
+        when(deviceService.patchDevicesByBrand("Apple", dto, 0L, 2)).thenReturn(List.of(view(3L), view(1L)));
+        when(deviceService.patchDevicesByBrand("Apple", dto, 3L, 2)).thenReturn(List.of(view(7L)));
+
+        assertEquals(3, deviceBulkService.patchDevicesByBrand("Apple", dto));
+
+        verify(deviceService, times(2)).patchDevicesByBrand(eq("Apple"), eq(dto), anyLong(), eq(2));
+    }
+
+    private static DeviceView view(Long id) {
+        return new DeviceView(id, "Device " + id, "Apple", LocalDateTime.of(2024, 9, 19, 10, 0), 0L);
+    }
+
+    private DeviceRequestDTO request(String name) {
+        DeviceRequestDTO dto = new DeviceRequestDTO();
+        dto.setName(name);
+        dto.setBrand("Test Brand");
+        dto.setCreationTime("2024-09-19T10:00:00");
+        return dto;
+    }
+}
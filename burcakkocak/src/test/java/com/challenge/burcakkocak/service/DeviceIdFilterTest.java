@@ -0,0 +1,136 @@
+package com.challenge.burcakkocak.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.challenge.burcakkocak.config.DeviceProperties;
+import com.challenge.burcakkocak.entity.Device;
+import com.challenge.burcakkocak.event.DeviceChangedEvent;
+import com.challenge.burcakkocak.event.DeviceSnapshot;
+import com.challenge.burcakkocak.repo.DeviceStore;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+class DeviceIdFilterTest {
+
+    @Mock
+    private DeviceStore deviceRepo;
+
+    private final DeviceProperties properties = new DeviceProperties();
+    private DeviceIdFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        filter = new DeviceIdFilter(deviceRepo, properties);
+    }
+
+    @Test
+    void Given_NotLoaded_When_MightExist_Then_AnswerTrue() {
+        assertTrue(filter.mightExist(42L));
+    }
+
+    @Test
+    void Given_IdsInSeveralPages_When_Loaded_Then_OnlyLoadedIdsMightExist() {
+        List<Long> firstPage = LongStream.rangeClosed(1, 10000).boxed().toList();
+        when(deviceRepo.findIdsAfter(0L, Limit.of(10000))).thenReturn(firstPage);
+        when(deviceRepo.findIdsAfter(10000L, Limit.of(10000))).thenReturn(List.of(20000L, 70000L));
+
+        filter.afterSingletonsInstantiated();
+
+        assertTrue(filter.mightExist(1L));
+        assertTrue(filter.mightExist(10000L));
+        assertTrue(filter.mightExist(70000L));
+        assertFalse(filter.mightExist(0L));
+        assertFalse(filter.mightExist(10001L));
+        assertFalse(filter.mightExist(70001L));
+        assertFalse(filter.mightExist(-1L));
+        assertFalse(filter.mightExist(Long.MAX_VALUE));
+    }
+
+    @Test
+    void Given_Loaded_When_DevicesCreatedAndDeleted_Then_FollowTheChanges() {
+        when(deviceRepo.findIdsAfter(0L, Limit.of(10000))).thenReturn(List.of(1L, 2L));
+        filter.afterSingletonsInstantiated();
+
+        filter.onDeviceCreated(DeviceChangedEvent.created(device(500L)));
+        filter.onDeviceDeleted(DeviceChangedEvent.deleted(DeviceSnapshot.of(device(1L))));
+        filter.onDeviceDeleted(DeviceChangedEvent.created(device(2L)));
+
+        assertTrue(filter.mightExist(500L));
+        assertFalse(filter.mightExist(1L));
+        assertTrue(filter.mightExist(2L));
+    }
+
+    @Test
+    void Given_RowsChangedByAnotherWriter_When_Reload_Then_FollowTheTable() {
+        when(deviceRepo.findIdsAfter(0L, Limit.of(10000))).thenReturn(List.of(1L, 2L));
+        filter.afterSingletonsInstantiated();
+        when(deviceRepo.findIdsAfter(0L, Limit.of(10000))).thenReturn(List.of(2L, 3L));
+
+        filter.reload();
+
+        assertFalse(filter.mightExist(1L));
+        assertTrue(filter.mightExist(2L));
+        assertTrue(filter.mightExist(3L));
+    }
+
+    @Test
+    void Given_DeviceCreatedDuringReload_When_Reload_Then_KeepIt() {
+        when(deviceRepo.findIdsAfter(0L, Limit.of(10000))).thenReturn(List.of(1L));
+        filter.afterSingletonsInstantiated();
+        when(deviceRepo.findIdsAfter(0L, Limit.of(10000))).thenAnswer(invocation -> {
+            filter.onDeviceCreated(DeviceChangedEvent.created(device(2L)));
+            return List.of(1L);
+        });
+
+        filter.reload();
+
+        assertTrue(filter.mightExist(2L));
+    }
+
+    @Test
+    void Given_FailingQuery_When_Reload_Then_KeepTheCurrentBitmap() {
+        when(deviceRepo.findIdsAfter(0L, Limit.of(10000))).thenReturn(List.of(1L));
+        filter.afterSingletonsInstantiated();
+        when(deviceRepo.findIdsAfter(0L, Limit.of(10000))).thenThrow(new IllegalStateException("Connection lost"));
+
+        assertThrows(IllegalStateException.class, () -> filter.reload());
+
+        assertTrue(filter.mightExist(1L));
+        assertFalse(filter.mightExist(2L));
+    }
+
+    @Test
+    void Given_IdTooLargeForTheBitmap_When_Created_Then_EveryIdMightExist() {
+        when(deviceRepo.findIdsAfter(0L, Limit.of(10000))).thenReturn(List.of(1L));
+        filter.afterSingletonsInstantiated();
+
+        filter.onDeviceCreated(DeviceChangedEvent.created(device(DeviceIdFilter.MAX_ID)));
+
+        assertTrue(filter.mightExist(7L));
+    }
+
+    @Test
+    void Given_Disabled_When_Loaded_Then_SkipTheQueryAndAnswerTrue() {
+        properties.getIdFilter().setEnabled(false);
+
+        filter.afterSingletonsInstantiated();
+
+        assertTrue(filter.mightExist(7L));
+        verifyNoInteractions(deviceRepo);
+    }
+
+    private static Device device(long id) {
+        Device device = new Device(id, "Device " + id, "Brand", LocalDateTime.parse("2024-09-19T10:00:00"));
+        device.setVersion(0L);
+        return device;
+    }
+}
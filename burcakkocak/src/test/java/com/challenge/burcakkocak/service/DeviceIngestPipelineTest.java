@@ -0,0 +1,148 @@
+package com.challenge.burcakkocak.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.challenge.burcakkocak.config.DeviceProperties;
+import com.challenge.burcakkocak.entity.Device;
+import com.challenge.burcakkocak.entity.dto.DeviceRequestDTO;
+import com.challenge.burcakkocak.entity.dto.DeviceResponseDTO;
+import com.challenge.burcakkocak.entity.dto.IngestStatusDTO;
+import com.challenge.burcakkocak.exception.IngestRejectedException;
+import com.challenge.burcakkocak.exception.ResourceNotFoundException;
+import com.challenge.burcakkocak.mapper.Mapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+class DeviceIngestPipelineTest {
+
+    @Mock
+    private DeviceService deviceService;
+
+    private final DeviceProperties properties = new DeviceProperties();
+    private DeviceIngestPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(deviceService.addDevices(anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    @Test
+    void Given_FullBatch_When_Queued_Then_WriteItInOneTransaction() throws InterruptedException {
+        properties.getIngest().setBatchSize(3);
+        properties.getIngest().setMaxDelay(Duration.ofSeconds(30));
+        start();
+
+        List<IngestStatusDTO> queued = List.of(pipeline.submit(request("A")), pipeline.submit(request("B")), pipeline.submit(request("C")));
+
+        assertEquals(IngestStatusDTO.Status.QUEUED, queued.get(0).getStatus());
+        IngestStatusDTO status = awaitOutcome(queued.get(2).getToken());
+        assertEquals(IngestStatusDTO.Status.CREATED, status.getStatus());
+        assertEquals("C", status.getDevice().getName());
+        verify(deviceService, times(1)).addDevices(anyList());
+    }
+
+    @Test
+    void Given_FullQueue_When_Submit_Then_RejectWithRetryAfter() throws InterruptedException {
+        properties.getIngest().setQueueCapacity(1);
+        properties.getIngest().setBatchSize(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(deviceService.addDevices(anyList())).thenAnswer(invocation -> {
+            release.await();
+            return created(invocation.getArgument(0));
+        });
+        start();
+
+        pipeline.submit(request("A"));
+        verify(deviceService, timeout(5000)).addDevices(anyList());
+        pipeline.submit(request("B"));
+
+        IngestRejectedException rejected = assertThrows(IngestRejectedException.class, () -> pipeline.submit(request("C")));
+        assertEquals(1, rejected.getRetryAfterSeconds());
+        release.countDown();
+    }
+
+    @Test
+    void Given_FailingBatch_When_Written_Then_StatusFailed() throws InterruptedException {
+        properties.getIngest().setBatchSize(1);
+        when(deviceService.addDevices(anyList())).thenThrow(new RuntimeException("Database unavailable"));
+        start();
+
+        IngestStatusDTO status = awaitOutcome(pipeline.submit(request("A")).getToken());
+
+        assertEquals(IngestStatusDTO.Status.FAILED, status.getStatus());
+        assertEquals("Could not persist device: Database unavailable", status.getError());
+    }
+
+    @Test
+    void Given_QueuedDevices_When_Stop_Then_WriteThemBeforeReturning() {
+        properties.getIngest().setMaxDelay(Duration.ofSeconds(30));
+        start();
+        String token = pipeline.submit(request("A")).getToken();
+        pipeline.submit(request("B"));
+
+        pipeline.stop();
+
+        assertFalse(pipeline.isRunning());
+        assertEquals(IngestStatusDTO.Status.CREATED, pipeline.getStatus(token).getStatus());
+        verify(deviceService).addDevices(argThat(devices -> devices.size() == 2));
+        assertThrows(IngestRejectedException.class, () -> pipeline.submit(request("C")));
+    }
+
+    @Test
+    void Given_UnknownToken_When_GetStatus_Then_ThrowResourceNotFoundException() {
+        start();
+        assertThrows(ResourceNotFoundException.class, () -> pipeline.getStatus("unknown"));
+    }
+
+    private void start() {
+        pipeline = new DeviceIngestPipeline(deviceService, new Mapper(), properties, new SimpleMeterRegistry());
+        pipeline.start();
+    }
+
+    private IngestStatusDTO awaitOutcome(String token) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            IngestStatusDTO status = pipeline.getStatus(token);
+            if (status.getStatus() != IngestStatusDTO.Status.QUEUED) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        fail("Device " + token + " was not written");
+        return null;
+    }
+
+    private static DeviceRequestDTO request(String name) {
+        DeviceRequestDTO dto = new DeviceRequestDTO();
+        dto.setName(name);
+        dto.setBrand("Apple");
+        dto.setCreationTime("2024-09-19T10:00:00");
+        return dto;
+    }
+
+    private static List<DeviceResponseDTO> created(List<Device> devices) {
+        List<DeviceResponseDTO> created = new ArrayList<>();
+        for (Device device : devices) {
+            DeviceResponseDTO dto = new DeviceResponseDTO();
+            dto.setId((long) created.size() + 1);
+            dto.setName(device.getName());
+            created.add(dto);
+        }
+        return created;
+    }
+}
@@ -5,29 +5,63 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.challenge.burcakkocak.config.DeviceProperties;
 import com.challenge.burcakkocak.entity.Device;
+import com.challenge.burcakkocak.entity.dto.CacheStatsDTO;
+import com.challenge.burcakkocak.entity.dto.CreatedStatsDTO;
+import com.challenge.burcakkocak.entity.dto.DevicePageDTO;
+import com.challenge.burcakkocak.event.DeviceChangedEvent;
+import com.challenge.burcakkocak.event.DeviceSnapshot;
 import com.challenge.burcakkocak.entity.dto.DeviceRequestDTO;
 import com.challenge.burcakkocak.entity.dto.DeviceResponseDTO;
+import com.challenge.burcakkocak.exception.InvalidRequestException;
+import com.challenge.burcakkocak.exception.PreconditionFailedException;
 import com.challenge.burcakkocak.exception.ResourceNotFoundException;
-import com.challenge.burcakkocak.repo.DeviceRepo;
+import com.challenge.burcakkocak.repo.CreatedCount;
+import com.challenge.burcakkocak.repo.DevicePatch;
+import com.challenge.burcakkocak.repo.DeviceStore;
+import com.challenge.burcakkocak.repo.DeviceView;
+import com.challenge.burcakkocak.repo.TimeBucket;
+import com.challenge.burcakkocak.mapper.CursorCodec;
 import com.challenge.burcakkocak.mapper.Mapper;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 class DeviceServiceTest {
 
     @Mock
-    private DeviceRepo deviceRepo;
+    private DeviceStore deviceRepo;
 
     @Mock
     private Mapper mapper;
 
+    @Spy
+    private DeviceProperties properties = new DeviceProperties();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    // Not loaded, so every id might exist and lookups reach the mocked repository
+    @Spy
+    private DeviceIdFilter deviceIdFilter = new DeviceIdFilter(null, new DeviceProperties());
+
     @InjectMocks
     private DeviceService deviceService;
 
@@ -66,24 +100,24 @@ class DeviceServiceTest {
         assertEquals("Test Device", result.getName());
         assertEquals("Test Brand", result.getBrand());
         assertEquals("2024-09-19T10:00:00", result.getCreationTime());
+        ArgumentCaptor<DeviceChangedEvent> event = ArgumentCaptor.forClass(DeviceChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals(DeviceChangedEvent.Type.CREATED, event.getValue().type());
+        assertEquals(1L, event.getValue().id());
     }
 
     @Test
     void When_GetDeviceById_Expect_DeviceResponseDTO() {
         Long deviceId = 1L;
-        Device device = new Device();
-        device.setId(deviceId);
-        device.setName("Test Device");
-        device.setBrand("Test Brand");
-        device.setCreationTime(LocalDateTime.now());
+        DeviceView device = new DeviceView(deviceId, "Test Device", "Test Brand", LocalDateTime.now(), 0L);
 
         DeviceResponseDTO responseDTO = new DeviceResponseDTO();
         responseDTO.setId(deviceId);
         responseDTO.setName("Test Device");
         responseDTO.setBrand("Test Brand");
-        responseDTO.setCreationTime(device.getCreationTime().toString());
+        responseDTO.setCreationTime(device.creationTime().toString());
 
-        when(deviceRepo.findById(deviceId)).thenReturn(Optional.of(device));
+        when(deviceRepo.findViewById(deviceId)).thenReturn(Optional.of(device));
         when(mapper.toResponseDTO(device)).thenReturn(responseDTO);
 
         DeviceResponseDTO result = deviceService.getDeviceById(deviceId);
@@ -97,16 +131,108 @@ class DeviceServiceTest {
     @Test
     void Given_NonExistentDeviceId_When_GetDeviceById_Then_ThrowResourceNotFoundException() {
         Long nonExistentId = 999L;
-        when(deviceRepo.findById(nonExistentId)).thenReturn(Optional.empty());
+        when(deviceRepo.findViewById(nonExistentId)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> deviceService.getDeviceById(nonExistentId));
     }
 
+    @Test
+    void Given_IdUnknownToIdFilter_When_GetDeviceById_Then_ThrowStacklessNotFoundWithoutQuery() {
+        when(deviceRepo.findIdsAfter(0L, Limit.of(10000))).thenReturn(List.of(1L));
+        DeviceIdFilter loadedFilter = new DeviceIdFilter(deviceRepo, properties);
+        loadedFilter.afterSingletonsInstantiated();
+        DeviceService service = new DeviceService(deviceRepo, mapper, properties, eventPublisher, loadedFilter);
+        reset(deviceRepo);
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> service.getDeviceById(999L));
+
+        assertEquals("Device not found with id: 999", exception.getMessage());
+        assertEquals(0, exception.getStackTrace().length);
+        assertThrows(ResourceNotFoundException.class, () -> service.updateDevicePartially(999L, new DeviceRequestDTO(), null));
+        assertThrows(ResourceNotFoundException.class, () -> service.deleteDevice(999L, null));
+        verifyNoInteractions(deviceRepo);
+    }
+
+    @Test
+    void Given_CachedDevice_When_GetDeviceByIdAgain_Then_RepositoryIsNotCalled() {
+        DeviceView device = new DeviceView(1L, "Test Device", "Test Brand", LocalDateTime.now(), 0L);
+        DeviceResponseDTO responseDTO = new DeviceResponseDTO();
+
+        when(deviceRepo.findViewById(1L)).thenReturn(Optional.of(device));
+        when(mapper.toResponseDTO(device)).thenReturn(responseDTO);
+
+        assertSame(responseDTO, deviceService.getDeviceById(1L));
+        assertSame(responseDTO, deviceService.getDeviceById(1L));
+
+        verify(deviceRepo, times(1)).findViewById(1L);
+        CacheStatsDTO stats = deviceService.getCacheStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+    }
+
+    @Test
+    void Given_NonExistentDeviceId_When_GetDeviceByIdTwice_Then_MissIsNotCached() {
+        when(deviceRepo.findViewById(999L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> deviceService.getDeviceById(999L));
+        assertThrows(ResourceNotFoundException.class, () -> deviceService.getDeviceById(999L));
+
+        verify(deviceRepo, times(2)).findViewById(999L);
+    }
+
+    @Test
+    void Given_CachedDevice_When_DeviceChanged_Then_EntryIsInvalidated() {
+        Device device = new Device(1L, "Test Device", "Test Brand", LocalDateTime.now());
+        DeviceView view = new DeviceView(1L, "Test Device", "Test Brand", device.getCreationTime(), 0L);
+
+        when(deviceRepo.findViewById(1L)).thenReturn(Optional.of(view));
+        when(mapper.toResponseDTO(view)).thenReturn(new DeviceResponseDTO());
+
+        deviceService.getDeviceById(1L);
+        deviceService.onDeviceChanged(DeviceChangedEvent.deleted(DeviceSnapshot.of(device)));
+        deviceService.getDeviceById(1L);
+
+        verify(deviceRepo, times(2)).findViewById(1L);
+    }
+
+    @Test
+    void Given_ConcurrentMisses_When_GetDeviceById_Then_LoadOnce() throws Exception {
+        DeviceView device = new DeviceView(1L, "Test Device", "Test Brand", LocalDateTime.now(), 0L);
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+
+        when(deviceRepo.findViewById(1L)).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            releaseLoad.await(5, TimeUnit.SECONDS);
+            return Optional.of(device);
+        });
+        when(mapper.toResponseDTO(device)).thenReturn(new DeviceResponseDTO());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<DeviceResponseDTO> first = executor.submit(() -> deviceService.getDeviceById(1L));
+            assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+            List<Future<DeviceResponseDTO>> others = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                others.add(executor.submit(() -> deviceService.getDeviceById(1L)));
+            }
+            releaseLoad.countDown();
+
+            DeviceResponseDTO result = first.get(5, TimeUnit.SECONDS);
+            for (Future<DeviceResponseDTO> other : others) {
+                assertSame(result, other.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(deviceRepo, times(1)).findViewById(1L);
+    }
+
     @Test
     void Should_ReturnListOfDeviceResponseDTO_When_GetAllDevices() {
-        List<Device> devices = Arrays.asList(
-                new Device(1L, "Device 1", "Brand 1", LocalDateTime.now()),
-                new Device(2L, "Device 2", "Brand 2", LocalDateTime.now())
+        List<DeviceView> devices = Arrays.asList(
+                new DeviceView(1L, "Device 1", "Brand 1", LocalDateTime.now(), 0L),
+                new DeviceView(2L, "Device 2", "Brand 2", LocalDateTime.now(), 0L)
         );
 
         List<DeviceResponseDTO> expectedResponseDTOs = Arrays.asList(
@@ -114,15 +240,111 @@ class DeviceServiceTest {
                 new DeviceResponseDTO()
         );
 
-        when(deviceRepo.findAll()).thenReturn(devices);
-        when(mapper.toResponseDTO(any(Device.class))).thenReturn(new DeviceResponseDTO());
+        when(deviceRepo.findPageAfter(0L, Limit.of(51))).thenReturn(devices);
 
-        List<DeviceResponseDTO> result = deviceService.getAllDevices();
+        DevicePageDTO result = deviceService.getAllDevices(null, null);
 
         assertNotNull(result);
-        assertEquals(2, result.size());
-        verify(deviceRepo, times(1)).findAll();
-        verify(mapper, times(2)).toResponseDTO(any(Device.class));
+        assertEquals(2, result.getDevices().size());
+        assertNull(result.getNextCursor());
+        verify(deviceRepo, times(1)).findPageAfter(0L, Limit.of(51));
+        verify(mapper, never()).toResponseDTO(any(DeviceView.class));
+    }
+
+    @Test
+    void Given_MoreRowsThanLimit_When_GetAllDevices_Then_ReturnNextCursor() {
+        List<DeviceView> devices = Arrays.asList(
+                new DeviceView(6L, "Device 6", "Brand 1", LocalDateTime.now(), 0L),
+                new DeviceView(7L, "Device 7", "Brand 1", LocalDateTime.now(), 0L),
+                new DeviceView(9L, "Device 9", "Brand 2", LocalDateTime.now(), 0L)
+        );
+
+        when(deviceRepo.findPageAfter(5L, Limit.of(3))).thenReturn(devices);
+
+        DevicePageDTO result = deviceService.getAllDevices(CursorCodec.encode(5L), 2);
+
+        assertEquals(2, result.getDevices().size());
+        assertEquals(7L, CursorCodec.decode(result.getNextCursor()));
+        verify(mapper, never()).toResponseDTO(any(DeviceView.class));
+    }
+
+    @Test
+    void Given_InvalidCursorOrLimit_When_GetAllDevices_Then_ThrowInvalidRequestException() {
+        assertThrows(InvalidRequestException.class, () -> deviceService.getAllDevices("not a cursor!", null));
+        assertThrows(InvalidRequestException.class, () -> deviceService.getAllDevices(null, 0));
+        verifyNoInteractions(deviceRepo);
+    }
+
+    @Test
+    void Given_LimitAboveMaximum_When_GetAllDevices_Then_ClampToMaxLimit() {
+        when(deviceRepo.findPageAfter(0L, Limit.of(1001))).thenReturn(Arrays.asList());
+
+        DevicePageDTO result = deviceService.getAllDevices(null, 5000);
+
+        assertTrue(result.getDevices().isEmpty());
+        verify(deviceRepo, times(1)).findPageAfter(0L, Limit.of(1001));
+    }
+
+    @Test
+    void Given_CreatedRange_When_GetDevicesCreatedBetween_Then_SeekPastTimeCursor() {
+        LocalDateTime march = LocalDateTime.parse("2024-03-01T00:00:00");
+        LocalDateTime april = LocalDateTime.parse("2024-04-01T00:00:00");
+        List<DeviceView> devices = Arrays.asList(
+                new DeviceView(4L, "Device 4", "Brand 1", march, 0L),
+                new DeviceView(2L, "Device 2", "Brand 1", april, 0L),
+                new DeviceView(3L, "Device 3", "Brand 2", april, 0L)
+        );
+        LocalDateTime cursorTime = LocalDateTime.parse("2024-02-15T00:00:00");
+        LocalDateTime createdTo = LocalDateTime.parse("2025-01-01T00:00:00");
+
+        when(deviceRepo.findPageCreatedBetweenAfter(cursorTime, createdTo, 9L, Limit.of(3))).thenReturn(devices);
+
+        DevicePageDTO result = deviceService.getDevicesCreatedBetween("2024-01-01T00:00:00", "2025-01-01T00:00:00",
+                CursorCodec.encode(cursorTime, 9L), 2);
+
+        assertEquals(2, result.getDevices().size());
+        assertEquals(new CursorCodec.TimeKey(april, 2L), CursorCodec.decodeTimeKey(result.getNextCursor()));
+    }
+
+    @Test
+    void Given_OpenEndedRange_When_GetDevicesCreatedBetween_Then_QueryFromCreatedFrom() {
+        LocalDateTime createdFrom = LocalDateTime.parse("2024-01-01T00:00:00");
+        when(deviceRepo.findPageCreatedBetweenAfter(eq(createdFrom), any(LocalDateTime.class), eq(0L), eq(Limit.of(51))))
+                .thenReturn(Arrays.asList());
+
+        DevicePageDTO result = deviceService.getDevicesCreatedBetween("2024-01-01T00:00:00", null, null, null);
+
+        assertTrue(result.getDevices().isEmpty());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void Given_InvalidRangeOrCursor_When_GetDevicesCreatedBetween_Then_ThrowInvalidRequestException() {
+        assertThrows(InvalidRequestException.class,
+                () -> deviceService.getDevicesCreatedBetween("2024-01-01", null, null, null));
+        assertThrows(InvalidRequestException.class,
+                () -> deviceService.getDevicesCreatedBetween("2024-02-01T00:00:00", "2024-01-01T00:00:00", null, null));
+        assertThrows(InvalidRequestException.class,
+                () -> deviceService.getDevicesCreatedBetween("2024-01-01T00:00:00", null, CursorCodec.encode(5L), null));
+        verifyNoInteractions(deviceRepo);
+    }
+
+    @Test
+    void Given_DayBucket_When_CountDevicesCreated_Then_ReturnFormattedBuckets() {
+        LocalDateTime createdFrom = LocalDateTime.parse("2024-01-01T00:00:00");
+        LocalDateTime createdTo = LocalDateTime.parse("2024-01-03T00:00:00");
+        when(deviceRepo.countCreatedPerBucket(TimeBucket.DAY, createdFrom, createdTo)).thenReturn(Arrays.asList(
+                new CreatedCount(createdFrom, 3), new CreatedCount(LocalDateTime.parse("2024-01-02T00:00:00"), 1)));
+
+        List<CreatedStatsDTO> result = deviceService.countDevicesCreated("Day", "2024-01-01T00:00:00", "2024-01-03T00:00:00");
+
+        assertEquals(Arrays.asList(new CreatedStatsDTO("2024-01-01T00:00:00", 3), new CreatedStatsDTO("2024-01-02T00:00:00", 1)), result);
+    }
+
+    @Test
+    void Given_UnknownBucket_When_CountDevicesCreated_Then_ThrowInvalidRequestException() {
+        assertThrows(InvalidRequestException.class, () -> deviceService.countDevicesCreated("week", null, null));
+        verifyNoInteractions(deviceRepo);
     }
 
     @Test
@@ -134,7 +356,6 @@ class DeviceServiceTest {
         requestDTO.setCreationTime("2024-09-19T11:00:00");
 
         Device existingDevice = new Device(deviceId, "Old Device", "Old Brand", LocalDateTime.now());
-        Device updatedDevice = new Device(deviceId, "Updated Device", "Updated Brand", LocalDateTime.parse("2024-09-19T11:00:00"));
 
         DeviceResponseDTO responseDTO = new DeviceResponseDTO();
         responseDTO.setId(deviceId);
@@ -143,37 +364,150 @@ class DeviceServiceTest {
         responseDTO.setCreationTime("2024-09-19T11:00:00");
 
         when(deviceRepo.findById(deviceId)).thenReturn(Optional.of(existingDevice));
-        when(deviceRepo.save(any(Device.class))).thenReturn(updatedDevice);
-        when(mapper.toResponseDTO(updatedDevice)).thenReturn(responseDTO);
+        when(mapper.toResponseDTO(existingDevice)).thenReturn(responseDTO);
 
-        DeviceResponseDTO result = deviceService.updateDevice(deviceId, requestDTO);
+        DeviceResponseDTO result = deviceService.updateDevice(deviceId, requestDTO, null);
+
+        // The managed entity is flushed as is, without a save() merge
+        verify(deviceRepo, never()).save(any(Device.class));
+        verify(deviceRepo, times(1)).flush();
+        assertEquals("Updated Device", existingDevice.getName());
+        assertEquals("updated brand", existingDevice.getBrandKey());
 
         assertNotNull(result);
         assertEquals(deviceId, result.getId());
         assertEquals("Updated Device", result.getName());
         assertEquals("Updated Brand", result.getBrand());
         assertEquals("2024-09-19T11:00:00", result.getCreationTime());
+        ArgumentCaptor<DeviceChangedEvent> event = ArgumentCaptor.forClass(DeviceChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals("Old Brand", event.getValue().before().brand());
+        assertEquals("Updated Brand", event.getValue().after().brand());
+    }
+
+    @Test
+    void Given_Ids_When_PatchDevices_Then_EventsCarryPatchedState() {
+        List<Long> ids = Arrays.asList(1L, 2L);
+        DeviceRequestDTO requestDTO = new DeviceRequestDTO();
+        requestDTO.setBrand("NewCo");
+        LocalDateTime creationTime = LocalDateTime.parse("2024-09-19T11:00:00");
+
+        when(deviceRepo.patchAllByIdReturning(ids, new DevicePatch(null, "NewCo", null))).thenReturn(Arrays.asList(
+                new DeviceView(1L, "Device 1", "OldCo", creationTime, 0L),
+                new DeviceView(2L, "Device 2", "OldCo", creationTime, 4L)));
+
+        assertEquals(2, deviceService.patchDevices(ids, requestDTO));
+
+        ArgumentCaptor<DeviceChangedEvent> event = ArgumentCaptor.forClass(DeviceChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(event.capture());
+        DeviceChangedEvent second = event.getAllValues().get(1);
+        assertEquals(DeviceChangedEvent.Type.UPDATED, second.type());
+        assertEquals("OldCo", second.before().brand());
+        assertEquals("NewCo", second.after().brand());
+        assertEquals("Device 2", second.after().name());
+        assertEquals(creationTime, second.after().creationTime());
+    }
+
+    @Test
+    void Given_EmptyOrInvalidPatch_When_PatchDevicesByBrand_Then_ThrowInvalidRequestException() {
+        DeviceRequestDTO empty = new DeviceRequestDTO();
+        DeviceRequestDTO blankBrand = new DeviceRequestDTO();
+        blankBrand.setBrand(" ");
+        DeviceRequestDTO badTime = new DeviceRequestDTO();
+        badTime.setCreationTime("19.09.2024");
+
+        assertThrows(InvalidRequestException.class, () -> deviceService.patchDevicesByBrand("OldCo", empty, 0L, 500));
+        assertThrows(InvalidRequestException.class, () -> deviceService.patchDevicesByBrand("OldCo", blankBrand, 0L, 500));
+        assertThrows(InvalidRequestException.class, () -> deviceService.patchDevicesByBrand("OldCo", badTime, 0L, 500));
+        verifyNoInteractions(deviceRepo);
+    }
+
+    @Test
+    void Given_StaleExpectedVersion_When_UpdateDevicePartially_Then_ThrowPreconditionFailed() {
+        Device existingDevice = new Device(1L, "Old Device", "Old Brand", LocalDateTime.now());
+        existingDevice.setVersion(3L);
+        DeviceRequestDTO requestDTO = new DeviceRequestDTO();
+        requestDTO.setName("New Device");
+
+        when(deviceRepo.findById(1L)).thenReturn(Optional.of(existingDevice));
+
+        assertThrows(PreconditionFailedException.class, () -> deviceService.updateDevicePartially(1L, requestDTO, 2L));
+        assertEquals("Old Device", existingDevice.getName());
+        verify(deviceRepo, never()).save(any(Device.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void Given_StaleExpectedVersion_When_DeleteDevice_Then_ThrowPreconditionFailed() {
+        when(deviceRepo.deleteByIdReturning(1L, 2L)).thenReturn(List.of());
+        when(deviceRepo.existsById(1L)).thenReturn(true);
+
+        assertThrows(PreconditionFailedException.class, () -> deviceService.deleteDevice(1L, 2L));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void Given_NonExistentDeviceId_When_DeleteDevice_Then_ThrowResourceNotFoundWithoutLookup() {
+        when(deviceRepo.deleteByIdReturning(999L, null)).thenReturn(List.of());
+
+        assertThrows(ResourceNotFoundException.class, () -> deviceService.deleteDevice(999L, null));
+        verify(deviceRepo, never()).existsById(999L);
+        verify(deviceRepo, never()).findById(999L);
     }
 
     @Test
     void Given_DeviceExists_When_DeleteDevice_Then_DeviceIsDeleted() {
         Long deviceId = 1L;
-        Device device = new Device(deviceId, "Test Device", "Test Brand", LocalDateTime.now());
+        DeviceView device = new DeviceView(deviceId, "Test Device", "Test Brand", LocalDateTime.now(), 3L);
 
-        when(deviceRepo.findById(deviceId)).thenReturn(Optional.of(device));
+        when(deviceRepo.deleteByIdReturning(deviceId, 3L)).thenReturn(List.of(device));
 
-        deviceService.deleteDevice(deviceId);
+        deviceService.deleteDevice(deviceId, 3L);
 
-        verify(deviceRepo, times(1)).findById(deviceId);
-        verify(deviceRepo, times(1)).deleteById(deviceId);
+        verify(deviceRepo, times(1)).deleteByIdReturning(deviceId, 3L);
+        verify(deviceRepo, never()).findById(deviceId);
+        ArgumentCaptor<DeviceChangedEvent> event = ArgumentCaptor.forClass(DeviceChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals(DeviceChangedEvent.Type.DELETED, event.getValue().type());
+        assertEquals("Test Brand", event.getValue().before().brand());
+    }
+
+    @Test
+    void Given_Ids_When_DeleteDevices_Then_OneEventPerDeletedDevice() {
+        List<Long> ids = Arrays.asList(1L, 2L, 3L);
+        when(deviceRepo.deleteAllByIdReturning(ids)).thenReturn(Arrays.asList(
+                new DeviceView(1L, "Device 1", "Brand 1", LocalDateTime.now(), 0L),
+                new DeviceView(3L, "Device 3", "Brand 2", LocalDateTime.now(), 0L)));
+
+        assertEquals(2, deviceService.deleteDevices(ids));
+
+        verify(eventPublisher, times(2)).publishEvent(any(DeviceChangedEvent.class));
+    }
+
+    @Test
+    void Given_TooManyIds_When_DeleteDevices_Then_ThrowInvalidRequestException() {
+        properties.getBulk().setMaxItems(2);
+
+        assertThrows(InvalidRequestException.class, () -> deviceService.deleteDevices(Arrays.asList(1L, 2L, 3L)));
+        verifyNoInteractions(deviceRepo);
+    }
+
+    @Test
+    void Given_MixedCaseBrand_When_DeleteDevicesByBrand_Then_DeleteByBrandKey() {
+        when(deviceRepo.deleteAllByBrandKeyReturning("test brand", 500)).thenReturn(
+                List.of(new DeviceView(1L, "Device 1", "Test Brand", LocalDateTime.now(), 0L)));
+
+        assertEquals(1, deviceService.deleteDevicesByBrand("TEST Brand", 500));
+
+        verify(eventPublisher, times(1)).publishEvent(any(DeviceChangedEvent.class));
     }
 
     @Test
     void Should_ReturnListOfDeviceResponseDTO_When_SearchDeviceByBrand() {
         String brand = "Test Brand";
-        List<Device> devices = Arrays.asList(
-                new Device(1L, "Device 1", brand, LocalDateTime.now()),
-                new Device(2L, "Device 2", brand, LocalDateTime.now())
+        List<DeviceView> devices = Arrays.asList(
+                new DeviceView(1L, "Device 1", brand, LocalDateTime.now(), 0L),
+                new DeviceView(2L, "Device 2", brand, LocalDateTime.now(), 0L)
         );
 
         List<DeviceResponseDTO> expectedResponseDTOs = Arrays.asList(
@@ -181,14 +515,56 @@ class DeviceServiceTest {
                 new DeviceResponseDTO()
         );
 
-        when(deviceRepo.findByBrand(brand)).thenReturn(devices);
-        when(mapper.toResponseDTO(any(Device.class))).thenReturn(new DeviceResponseDTO());
+        when(deviceRepo.findPageByBrandKeyAfter("test brand", 0L, Limit.of(51))).thenReturn(devices);
 
-        List<DeviceResponseDTO> result = deviceService.searchDeviceByBrand(brand);
+        DevicePageDTO result = deviceService.searchDeviceByBrand(brand, false, null, null);
 
         assertNotNull(result);
+        assertEquals(2, result.getDevices().size());
+        verify(deviceRepo, times(1)).findPageByBrandKeyAfter("test brand", 0L, Limit.of(51));
+        verify(mapper, never()).toResponseDTO(any(DeviceView.class));
+    }
+
+    @Test
+    void Given_Prefix_When_SearchDeviceByBrand_Then_UseEscapedLikePattern() {
+        when(deviceRepo.findPageByBrandKeyLikeAfter("ap\\_p%", 0L, Limit.of(51))).thenReturn(Arrays.asList());
+
+        DevicePageDTO result = deviceService.searchDeviceByBrand("AP_p", true, null, null);
+
+        assertTrue(result.getDevices().isEmpty());
+        verify(deviceRepo, times(1)).findPageByBrandKeyLikeAfter("ap\\_p%", 0L, Limit.of(51));
+    }
+
+    @Test
+    void When_ExportDevices_Expect_EveryDeviceSentToSink() {
+        DeviceView first = new DeviceView(1L, "Device 1", "Brand 1", LocalDateTime.now(), 0L);
+        DeviceView second = new DeviceView(2L, "Device 2", "Brand 2", LocalDateTime.now(), 0L);
+
+        when(deviceRepo.streamAllOrderById()).thenReturn(Stream.of(first, second));
+
+        List<DeviceView> exported = new ArrayList<>();
+        deviceService.exportDevices(exported::add);
+
+        assertEquals(Arrays.asList(first, second), exported);
+        verify(deviceRepo).streamAllOrderById();
+        verifyNoMoreInteractions(deviceRepo);
+    }
+
+    @Test
+    void Should_SaveAndFlushChunk_When_AddingDevices() {
+        List<Device> devices = Arrays.asList(
+                new Device(null, "Device 1", "Brand 1", LocalDateTime.now()),
+                new Device(null, "Device 2", "Brand 1", LocalDateTime.now())
+        );
+
+        when(deviceRepo.saveAll(devices)).thenReturn(devices);
+        when(mapper.toResponseDTO(any(Device.class))).thenReturn(new DeviceResponseDTO());
+
+        List<DeviceResponseDTO> result = deviceService.addDevices(devices);
+
         assertEquals(2, result.size());
-        verify(deviceRepo, times(1)).findByBrand(brand);
-        verify(mapper, times(2)).toResponseDTO(any(Device.class));
+        verify(deviceRepo, times(1)).saveAll(devices);
+        verify(deviceRepo, times(1)).flush();
+        verify(deviceRepo, never()).save(any(Device.class));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,133 @@
+package com.challenge.burcakkocak.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.challenge.burcakkocak.config.DeviceProperties;
+import com.challenge.burcakkocak.entity.dto.DevicePageDTO;
+import com.challenge.burcakkocak.event.DeviceChangedEvent;
+import com.challenge.burcakkocak.event.DeviceSnapshot;
+import com.challenge.burcakkocak.exception.InvalidRequestException;
+import com.challenge.burcakkocak.mapper.CursorCodec;
+import com.challenge.burcakkocak.repo.DeviceStore;
+import com.challenge.burcakkocak.repo.DeviceView;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+class DeviceTextIndexTest {
+
+    @Mock
+    private DeviceStore deviceRepo;
+
+    private DeviceTextIndex deviceTextIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(deviceRepo.findPageAfter(eq(0L), any(Limit.class))).thenReturn(List.of(
+                view(1L, "Galaxy S24", "Samsung"), view(2L, "Galaxy Tab S9", "Samsung"),
+                view(3L, "iPhone 15", "Apple"), view(4L, "Xperia 1", "Sony")));
+        deviceTextIndex = new DeviceTextIndex(deviceRepo, new DeviceProperties());
+        deviceTextIndex.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void Given_MisspelledQuery_When_Search_Then_RankClosestDeviceFirst() {
+        DevicePageDTO page = deviceTextIndex.search("galxy s24", null, null);
+
+        assertEquals(List.of(1L, 2L), ids(page));
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void Given_BrandQuery_When_Search_Then_MatchCaseInsensitively() {
+        assertEquals(List.of(4L), ids(deviceTextIndex.search("SONY", null, null)));
+        assertTrue(deviceTextIndex.search("nokia", null, null).getDevices().isEmpty());
+    }
+
+    @Test
+    void Given_MoreMatchesThanLimit_When_Search_Then_ContinueFromCursor() {
+        DevicePageDTO first = deviceTextIndex.search("samsung", null, 1);
+        DevicePageDTO second = deviceTextIndex.search("samsung", first.getNextCursor(), 1);
+
+        assertEquals(List.of(1L), ids(first));
+        assertEquals(List.of(2L), ids(second));
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void Given_PagesOfOne_When_Search_Then_FollowTheFullRanking() {
+        deviceTextIndex.onDeviceChanged(created(view(5L, "Galaxy S24 Ultra", "Samsung")));
+        deviceTextIndex.onDeviceChanged(created(view(6L, "Galaxy S23", "Samsung")));
+        deviceTextIndex.onDeviceChanged(created(view(7L, "Galaxy S24", "Samsung")));
+        List<Long> ranking = ids(deviceTextIndex.search("galaxy s24", null, 100));
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            DevicePageDTO page = deviceTextIndex.search("galaxy s24", cursor, 1);
+            paged.addAll(ids(page));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of(1L, 7L, 5L, 6L, 2L), ranking);
+        assertEquals(ranking, paged);
+    }
+
+    @Test
+    void Given_CommittedChanges_When_Search_Then_ReflectThem() {
+        DeviceSnapshot before = DeviceSnapshot.of(view(3L, "iPhone 15", "Apple"));
+        deviceTextIndex.onDeviceChanged(DeviceChangedEvent.updated(before, DeviceSnapshot.of(view(3L, "Pixel 9", "Google"))));
+        deviceTextIndex.onDeviceChanged(DeviceChangedEvent.deleted(DeviceSnapshot.of(view(4L, "Xperia 1", "Sony"))));
+
+        assertTrue(deviceTextIndex.search("iphone", null, null).getDevices().isEmpty());
+        assertEquals(List.of(3L), ids(deviceTextIndex.search("pixel", null, null)));
+        assertTrue(deviceTextIndex.search("sony", null, null).getDevices().isEmpty());
+    }
+
+    @Test
+    void Given_BlankQuery_When_Search_Then_ThrowInvalidRequestException() {
+        assertThrows(InvalidRequestException.class, () -> deviceTextIndex.search(" ", null, null));
+    }
+
+    @Test
+    void Given_NegativeCursor_When_Search_Then_ThrowInvalidRequestException() {
+        String cursor = CursorCodec.encode(-1L);
+
+        assertThrows(InvalidRequestException.class, () -> deviceTextIndex.search("samsung", cursor, 1));
+    }
+
+    @Test
+    void Given_CursorPastAllMatches_When_Search_Then_ReturnEmptyPage() {
+        DevicePageDTO page = deviceTextIndex.search("samsung", CursorCodec.encode(Long.MAX_VALUE), 1);
+
+        assertTrue(page.getDevices().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void Given_Text_When_Trigrams_Then_PadEachWordAndDropDuplicates() {
+        assertEquals(4, DeviceTextIndex.trigrams("S24").length);
+        assertEquals(7, DeviceTextIndex.trigrams("s24 S24, ab").length);
+        assertEquals(0, DeviceTextIndex.trigrams("--").length);
+    }
+
+    private static DeviceChangedEvent created(DeviceView device) {
+        return new DeviceChangedEvent(DeviceChangedEvent.Type.CREATED, null, DeviceSnapshot.of(device));
+    }
+
+    private static List<Long> ids(DevicePageDTO page) {
+        return page.getDevices().stream().map(DeviceView::id).toList();
+    }
+
+    private static DeviceView view(Long id, String name, String brand) {
+        return new DeviceView(id, name, brand, LocalDateTime.of(2024, 9, 19, 10, 0), 0L);
+    }
+}
@@ -0,0 +1,86 @@
+package com.challenge.burcakkocak.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.challenge.burcakkocak.config.DeviceProperties;
+import com.challenge.burcakkocak.repo.DeviceStore;
+import com.challenge.burcakkocak.repo.DeviceView;
+import com.challenge.burcakkocak.repo.TimeBucket;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+class StartupWarmUpTest {
+
+    @Mock
+    private DeviceStore deviceRepo;
+
+    @Spy
+    private DeviceProperties properties = new DeviceProperties();
+
+    @InjectMocks
+    private StartupWarmUp startupWarmUp;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties.getWarmUp().setIterations(3);
+    }
+
+    @Test
+    void Given_Devices_When_Run_Then_EachReadQueryRunsPerIteration() {
+        when(deviceRepo.count()).thenReturn(1L);
+        when(deviceRepo.findPageAfter(0L, Limit.of(50)))
+                .thenReturn(List.of(new DeviceView(1L, "Device 1", "Apple", LocalDateTime.now(), 0L)));
+
+        startupWarmUp.run(null);
+
+        verify(deviceRepo, times(3)).findPageAfter(0L, Limit.of(50));
+        verify(deviceRepo, times(3)).findViewById(1L);
+        verify(deviceRepo, times(3)).findPageByBrandKeyAfter("apple", 0L, Limit.of(50));
+        verify(deviceRepo, times(3)).countCreatedPerBucket(eq(TimeBucket.HOUR), any(), any());
+    }
+
+    @Test
+    void Given_DeviceWithoutCreationTime_When_Run_Then_SkipTimeRangeQueries() {
+        when(deviceRepo.count()).thenReturn(1L);
+        when(deviceRepo.findPageAfter(0L, Limit.of(50))).thenReturn(List.of(new DeviceView(1L, "Device 1", "Apple", null, 0L)));
+
+        startupWarmUp.run(null);
+
+        verify(deviceRepo, times(3)).findPageByBrandKeyAfter("apple", 0L, Limit.of(50));
+        verify(deviceRepo, never()).findPageCreatedBetweenAfter(any(), any(), anyLong(), any());
+        verify(deviceRepo, never()).countCreatedPerBucket(any(), any(), any());
+    }
+
+    @Test
+    void Given_FailingQuery_When_Run_Then_StopWarmUpWithoutThrowing() {
+        when(deviceRepo.count()).thenReturn(1L);
+        when(deviceRepo.findPageAfter(0L, Limit.of(50))).thenThrow(new IllegalStateException("Broken row"));
+
+        assertDoesNotThrow(() -> startupWarmUp.run(null));
+
+        verify(deviceRepo, times(1)).findPageAfter(0L, Limit.of(50));
+    }
+
+    @Test
+    void Given_EmptyStoreOrDisabled_When_Run_Then_OnlyCountDevices() {
+        when(deviceRepo.count()).thenReturn(0L);
+        startupWarmUp.run(null);
+
+        properties.getWarmUp().setEnabled(false);
+        when(deviceRepo.count()).thenReturn(5L);
+        startupWarmUp.run(null);
+
+        verify(deviceRepo, times(2)).count();
+        verifyNoMoreInteractions(deviceRepo);
+    }
+}